@@ -0,0 +1,68 @@
+// k6 load test for the drug record endpoints.
+// Run once per threading mode and compare the k6 summary with the JVM metrics:
+//   k6 run -e BASE_URL=http://localhost:8080/api/v1 -e VUS=500 load-tests/drug-records.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api/v1';
+const EMAIL = __ENV.EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.PASSWORD || 'loadtest123';
+const APPLICATION_NUMBER = __ENV.APPLICATION_NUMBER || 'BLA761174';
+const MANUFACTURER = __ENV.MANUFACTURER || 'Pfizer';
+
+export const options = {
+    scenarios: {
+        stored_records: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 200),
+            duration: __ENV.DURATION || '2m',
+            exec: 'storedRecords',
+        },
+        fda_search: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.SEARCH_VUS || 50),
+            duration: __ENV.DURATION || '2m',
+            exec: 'fdaSearch',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    http.post(`${BASE_URL}/auth/register`, JSON.stringify({
+        email: EMAIL,
+        password: PASSWORD,
+        repeatPassword: PASSWORD,
+        firstName: 'Load',
+        lastName: 'Test',
+    }), { headers: JSON_HEADERS });
+
+    const login = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }), { headers: JSON_HEADERS });
+    const token = login.json('token');
+    const auth = { headers: { Authorization: `Bearer ${token}` } };
+
+    // Make sure the stored record used by the read scenario exists
+    http.get(`${BASE_URL}/drug-records/save/${APPLICATION_NUMBER}`, auth);
+
+    return { token };
+}
+
+function authHeaders(data) {
+    return { headers: { Authorization: `Bearer ${data.token}` } };
+}
+
+export function storedRecords(data) {
+    const response = http.get(`${BASE_URL}/drug-records/${APPLICATION_NUMBER}`, authHeaders(data));
+    check(response, { 'stored record 200': (r) => r.status === 200 });
+}
+
+export function fdaSearch(data) {
+    const page = 1 + Math.floor(Math.random() * 20);
+    const response = http.get(
+        `${BASE_URL}/drug-records/search?manufacturerName=${MANUFACTURER}&page=${page}&size=10`,
+        authHeaders(data));
+    check(response, { 'search 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,78 @@
+// k6 load test: stored record reads at a fixed rate while a storm of logins runs alongside.
+// Reads should keep their latency during the storm, excess logins are answered with 503.
+//   k6 run -e BASE_URL=http://localhost:8080/api/v1 -e LOGIN_VUS=300 load-tests/login-storm.js
+// Run it again with BCrypt on the request threads (e.g. password-encoder.threads=200
+// and password-encoder.queue-capacity=10000) to compare.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080/api/v1';
+const EMAIL = __ENV.EMAIL || 'loadtest@example.com';
+const PASSWORD = __ENV.PASSWORD || 'loadtest123';
+const APPLICATION_NUMBER = __ENV.APPLICATION_NUMBER || 'BLA761174';
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'constant-arrival-rate',
+            rate: Number(__ENV.READ_RATE || 200),
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 100,
+            maxVUs: 500,
+            exec: 'storedRecords',
+        },
+        login_storm: {
+            executor: 'ramping-vus',
+            startTime: '30s',
+            stages: [
+                { duration: '15s', target: Number(__ENV.LOGIN_VUS || 300) },
+                { duration: '45s', target: Number(__ENV.LOGIN_VUS || 300) },
+                { duration: '15s', target: 0 },
+            ],
+            exec: 'login',
+        },
+    },
+    thresholds: {
+        'http_req_duration{scenario:reads}': ['p(95)<200', 'p(99)<500'],
+        'checks{scenario:reads}': ['rate>0.99'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    http.post(`${BASE_URL}/auth/register`, JSON.stringify({
+        email: EMAIL,
+        password: PASSWORD,
+        repeatPassword: PASSWORD,
+        firstName: 'Load',
+        lastName: 'Test',
+    }), { headers: JSON_HEADERS });
+
+    const login = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }), { headers: JSON_HEADERS });
+    const token = login.json('token');
+
+    // Make sure the stored record used by the read scenario exists
+    http.get(`${BASE_URL}/drug-records/save/${APPLICATION_NUMBER}`,
+        { headers: { Authorization: `Bearer ${token}` } });
+
+    return { token };
+}
+
+export function storedRecords(data) {
+    const response = http.get(`${BASE_URL}/drug-records/${APPLICATION_NUMBER}`,
+        { headers: { Authorization: `Bearer ${data.token}` } });
+    check(response, { 'stored record 200': (r) => r.status === 200 });
+}
+
+export function login() {
+    const response = http.post(`${BASE_URL}/auth/login`,
+        JSON.stringify({ email: EMAIL, password: PASSWORD }), { headers: JSON_HEADERS });
+    check(response, {
+        'login 200 or 503': (r) => r.status === 200 || r.status === 503,
+    });
+}
@@ -0,0 +1,110 @@
+package com.example.medrecordsapi.cache;
+
+import com.example.medrecordsapi.config.DrugRecordCacheProperties;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache of stored drug records by application number. Lookups that found nothing
+ * are cached as well, for the shorter negative TTL. Writers invalidate the keys they store, so
+ * a record saved after a not-found lookup is visible right away on this instance.
+ */
+@Component
+public class DrugRecordCache {
+
+    private static final String CACHE_NAME = "drug-records";
+    private static final String NEGATIVE_HITS_METRIC = "drug-records.cache.negative";
+
+    private final DrugRecordCacheProperties properties;
+    private final Cache<String, Optional<DrugRecordResponseDto>> cache;
+    private final Counter negativeHits;
+
+    @Autowired
+    public DrugRecordCache(DrugRecordCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Ticker.systemTicker());
+    }
+
+    DrugRecordCache(DrugRecordCacheProperties properties, MeterRegistry meterRegistry,
+                    Ticker ticker) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new PositiveNegativeExpiry(properties))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.negativeHits = meterRegistry.counter(NEGATIVE_HITS_METRIC);
+    }
+
+    public Optional<DrugRecordResponseDto> get(
+            String applicationNumber,
+            Function<String, Optional<DrugRecordResponseDto>> loader) {
+        if (!properties.enabled()) {
+            return loader.apply(applicationNumber);
+        }
+
+        // Read without recording stats, get() below records the hit or miss
+        Optional<DrugRecordResponseDto> cached =
+                cache.policy().getIfPresentQuietly(applicationNumber);
+        if (cached != null && cached.isEmpty()) {
+            negativeHits.increment();
+        }
+
+        return cache.get(applicationNumber, loader);
+    }
+
+    public void invalidate(String applicationNumber) {
+        cache.invalidate(applicationNumber);
+    }
+
+    public void invalidateAll(Collection<String> applicationNumbers) {
+        cache.invalidateAll(applicationNumbers);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static class PositiveNegativeExpiry
+            implements Expiry<String, Optional<DrugRecordResponseDto>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PositiveNegativeExpiry(DrugRecordCacheProperties properties) {
+            this.ttlNanos = properties.ttl().toNanos();
+            this.negativeTtlNanos = properties.negativeTtl().toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<DrugRecordResponseDto> value,
+                                      long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<DrugRecordResponseDto> value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<DrugRecordResponseDto> value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
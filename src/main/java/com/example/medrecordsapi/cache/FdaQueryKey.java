@@ -0,0 +1,15 @@
+package com.example.medrecordsapi.cache;
+
+public record FdaQueryKey(
+        String queryParam,
+        String queryValue,
+        int page,
+        int size
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public String asId() {
+        return queryParam + SEPARATOR + queryValue + SEPARATOR + page + SEPARATOR + size;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.medrecordsapi.cache;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaCacheProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import com.example.medrecordsapi.model.FdaResponseCacheEntry;
+import com.example.medrecordsapi.repository.FdaResponseCacheRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Two-tier cache for raw openFDA responses. The local tier is a bounded Caffeine cache,
+ * the optional shared tier lives in MongoDB so that all instances benefit from a lookup.
+ * Entries older than the TTL are still served for the stale-while-revalidate window while
+ * a single background refresh replaces them. When openFDA fails or the circuit around it is
+ * open, entries are kept serving for the stale-if-error window beyond that.
+ */
+@Component
+@Slf4j
+public class FdaResponseCache {
+
+    private static final String CACHE_NAME = "fda.responses";
+    private static final String SHARED_TIER_METRIC = "fda.cache.shared";
+    private static final String STALE_METRIC = "fda.cache.stale";
+    private static final String RESULT_TAG = "result";
+    private static final String REFRESH_THREAD_PREFIX = "fda-cache-refresh-";
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+    private final FdaCacheProperties properties;
+    private final FdaResponseCacheRepository sharedRepository;
+    // Ages are measured on the ticker, wall-clock time is only used for the shared tier
+    private final Ticker ticker;
+    private final Clock clock = Clock.systemUTC();
+    private final Cache<FdaQueryKey, CachedResponse> localCache;
+    private final ExecutorService refreshExecutor;
+    private final Set<FdaQueryKey> refreshesInFlight = ConcurrentHashMap.newKeySet();
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter staleServed;
+    private final Counter staleServedOnError;
+    private final Counter refreshFailures;
+
+    @Autowired
+    public FdaResponseCache(FdaCacheProperties properties,
+                            FdaResponseCacheRepository sharedRepository,
+                            MeterRegistry meterRegistry,
+                            ExecutorFactory executorFactory) {
+        this(properties, sharedRepository, meterRegistry, executorFactory,
+                Ticker.systemTicker());
+    }
+
+    FdaResponseCache(FdaCacheProperties properties,
+                     FdaResponseCacheRepository sharedRepository,
+                     MeterRegistry meterRegistry,
+                     ExecutorFactory executorFactory,
+                     Ticker ticker) {
+        this.properties = properties;
+        this.sharedRepository = sharedRepository;
+        this.ticker = ticker;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.retention())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.refreshExecutor = executorFactory.newBoundedExecutor(
+                REFRESH_THREAD_PREFIX, properties.refreshThreads(), REFRESH_QUEUE_CAPACITY);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, CACHE_NAME);
+        this.sharedHits = meterRegistry.counter(SHARED_TIER_METRIC, RESULT_TAG, "hit");
+        this.sharedMisses = meterRegistry.counter(SHARED_TIER_METRIC, RESULT_TAG, "miss");
+        this.staleServed = meterRegistry.counter(STALE_METRIC, RESULT_TAG, "served");
+        this.staleServedOnError = meterRegistry.counter(STALE_METRIC, RESULT_TAG,
+                "served-on-error");
+        this.refreshFailures = meterRegistry.counter(STALE_METRIC, RESULT_TAG, "refresh-failed");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    public String get(FdaQueryKey key, Supplier<String> loader) {
+        if (!properties.enabled()) {
+            return loader.get();
+        }
+
+        CachedResponse cached = lookup(key);
+        if (cached != null) {
+            Duration age = Duration.ofNanos(ticker.read() - cached.fetchedAtNanos());
+            if (age.compareTo(properties.ttl()) < 0) {
+                log.debug("FDA cache hit for key: {}", key);
+                return cached.body();
+            }
+            if (age.compareTo(properties.ttl().plus(properties.staleWhileRevalidate())) < 0) {
+                log.debug("Serving stale FDA response for key: {}", key);
+                staleServed.increment();
+                refreshInBackground(key, loader);
+                return cached.body();
+            }
+        }
+
+        log.debug("FDA cache miss for key: {}", key);
+        String body;
+        try {
+            body = loader.get();
+        } catch (RuntimeException e) {
+            if (cached == null || !isUpstreamFailure(e)) {
+                throw e;
+            }
+            log.warn("openFDA unavailable, serving stale response for key {}: {}", key,
+                    e.getMessage());
+            staleServedOnError.increment();
+            return cached.body();
+        }
+        put(key, body);
+
+        return body;
+    }
+
+    private CachedResponse lookup(FdaQueryKey key) {
+        CachedResponse cached = localCache.getIfPresent(key);
+        if (cached != null || !properties.shared().enabled()) {
+            return cached;
+        }
+
+        cached = readSharedTier(key);
+        if (cached != null) {
+            sharedHits.increment();
+            localCache.put(key, cached);
+        } else {
+            sharedMisses.increment();
+        }
+
+        return cached;
+    }
+
+    private CachedResponse readSharedTier(FdaQueryKey key) {
+        try {
+            Optional<FdaResponseCacheEntry> entry = sharedRepository.findById(key.asId());
+            return entry
+                    .filter(e -> e.getExpiresAt().isAfter(clock.instant()))
+                    .map(e -> new CachedResponse(e.getBody(), ticker.read()
+                            - Duration.between(e.getFetchedAt(), clock.instant()).toNanos()))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Shared FDA cache tier unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void put(FdaQueryKey key, String body) {
+        localCache.put(key, new CachedResponse(body, ticker.read()));
+
+        if (properties.shared().enabled()) {
+            try {
+                Instant now = clock.instant();
+                sharedRepository.save(new FdaResponseCacheEntry(
+                        key.asId(), body, now, now.plus(properties.retention())));
+            } catch (DataAccessException e) {
+                log.warn("Could not write FDA response to the shared cache tier: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void refreshInBackground(FdaQueryKey key, Supplier<String> loader) {
+        if (!refreshesInFlight.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    put(key, loader.get());
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    log.warn("Background refresh failed for key {}: {}", key, e.getMessage());
+                } finally {
+                    refreshesInFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshesInFlight.remove(key);
+            log.warn("Refresh queue full, keeping stale FDA response for key: {}", key);
+        }
+    }
+
+    private static boolean isUpstreamFailure(RuntimeException e) {
+        return e instanceof FdaApiUnavailableException
+                || e instanceof FdaApiTimeoutException
+                || e instanceof FdaApiThrottledException
+                || e instanceof ServiceOverloadedException;
+    }
+
+    private record CachedResponse(String body, long fetchedAtNanos) {
+    }
+}
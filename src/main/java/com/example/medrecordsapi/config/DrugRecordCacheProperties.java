@@ -0,0 +1,21 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.drug-record-cache")
+public record DrugRecordCacheProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("10000")
+        long maximumSize,
+
+        @DefaultValue("10m")
+        Duration ttl,
+
+        @DefaultValue("30s")
+        Duration negativeTtl
+) {
+}
@@ -0,0 +1,57 @@
+package com.example.medrecordsapi.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the bounded executors used for work outside of the request thread. Honors
+ * spring.threads.virtual.enabled, so the same limits apply in both threading modes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExecutorFactory {
+
+    private static final long VIRTUAL_KEEP_ALIVE_SECONDS = 1;
+
+    private final Environment environment;
+
+    /**
+     * Runs at most {@code threads} tasks at once and queues up to {@code queueCapacity} more;
+     * further submissions are rejected. With virtual threads enabled the workers are virtual
+     * threads, the bounds stay the same.
+     */
+    public ExecutorService newBoundedExecutor(String threadPrefix, int threads,
+                                              int queueCapacity) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Idle virtual workers are cheap to recreate, so none are kept around
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                    VIRTUAL_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    new VirtualThreadTaskExecutor(threadPrefix).getVirtualThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+        return newPlatformExecutor(threadPrefix, threads, queueCapacity);
+    }
+
+    /**
+     * Same bounds as {@link #newBoundedExecutor}, but always on platform threads. Meant for
+     * CPU-bound work, which would otherwise occupy the carrier threads in virtual mode.
+     */
+    public ExecutorService newPlatformExecutor(String threadPrefix, int threads,
+                                               int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(threadPrefix));
+    }
+}
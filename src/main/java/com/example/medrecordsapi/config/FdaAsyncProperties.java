@@ -0,0 +1,14 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.async")
+public record FdaAsyncProperties(
+        @DefaultValue("32")
+        int threads,
+
+        @DefaultValue("1000")
+        int queueCapacity
+) {
+}
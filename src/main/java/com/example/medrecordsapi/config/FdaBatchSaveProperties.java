@@ -0,0 +1,11 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.batch-save")
+public record FdaBatchSaveProperties(
+        @DefaultValue("50")
+        int chunkSize
+) {
+}
@@ -0,0 +1,18 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.bulkhead")
+public record FdaBulkheadProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("20")
+        int maxConcurrentCalls,
+
+        @DefaultValue("100ms")
+        Duration maxWait
+) {
+}
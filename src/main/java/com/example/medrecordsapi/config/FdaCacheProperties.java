@@ -0,0 +1,40 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.cache")
+public record FdaCacheProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("10000")
+        long maximumSize,
+
+        @DefaultValue("5m")
+        Duration ttl,
+
+        @DefaultValue("10m")
+        Duration staleWhileRevalidate,
+
+        @DefaultValue("1h")
+        Duration staleIfError,
+
+        @DefaultValue("2")
+        int refreshThreads,
+
+        @DefaultValue
+        Shared shared
+) {
+
+    public Duration retention() {
+        return ttl.plus(staleWhileRevalidate).plus(staleIfError);
+    }
+
+    public record Shared(
+            @DefaultValue("false")
+            boolean enabled
+    ) {
+    }
+}
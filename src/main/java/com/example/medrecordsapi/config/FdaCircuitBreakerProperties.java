@@ -0,0 +1,33 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.circuit-breaker")
+public record FdaCircuitBreakerProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("20")
+        int slidingWindowSize,
+
+        @DefaultValue("10")
+        int minimumCalls,
+
+        @DefaultValue("0.5")
+        double failureRateThreshold,
+
+        @DefaultValue("3s")
+        Duration slowCallDuration,
+
+        @DefaultValue("0.5")
+        double slowCallRateThreshold,
+
+        @DefaultValue("30s")
+        Duration openDuration,
+
+        @DefaultValue("3")
+        int halfOpenCalls
+) {
+}
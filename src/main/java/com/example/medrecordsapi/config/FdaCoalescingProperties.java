@@ -0,0 +1,15 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.coalescing")
+public record FdaCoalescingProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("15s")
+        Duration waitTimeout
+) {
+}
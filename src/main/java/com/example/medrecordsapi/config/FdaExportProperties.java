@@ -0,0 +1,13 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.export")
+public record FdaExportProperties(
+        @DefaultValue("1000")
+        int cursorBatchSize,
+        @DefaultValue("1000")
+        int flushInterval
+) {
+}
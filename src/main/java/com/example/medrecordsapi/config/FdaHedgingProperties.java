@@ -0,0 +1,30 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.hedging")
+public record FdaHedgingProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("0.95")
+        double percentile,
+
+        @DefaultValue("50ms")
+        Duration minimumDelay,
+
+        @DefaultValue("0.05")
+        double maxHedgeRate,
+
+        @DefaultValue("1000")
+        int windowSize,
+
+        @DefaultValue("100")
+        int minimumSamples,
+
+        @DefaultValue("40")
+        int threads
+) {
+}
@@ -0,0 +1,36 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.http-client")
+public record FdaHttpClientProperties(
+        @DefaultValue("100")
+        int maxConnections,
+
+        @DefaultValue("50")
+        int maxConnectionsPerRoute,
+
+        @DefaultValue("3s")
+        Duration connectTimeout,
+
+        @DefaultValue("2s")
+        Duration connectionRequestTimeout,
+
+        @DefaultValue("10s")
+        Duration responseTimeout,
+
+        @DefaultValue("30s")
+        Duration keepAlive,
+
+        @DefaultValue("30s")
+        Duration idleEvictionTimeout,
+
+        @DefaultValue("5m")
+        Duration connectionTimeToLive,
+
+        @DefaultValue("10s")
+        Duration validateAfterInactivity
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.ingest")
+public record FdaIngestProperties(
+        @DefaultValue("data/drug-drugsfda-0001-of-0001.json.zip")
+        String file,
+
+        @DefaultValue("1000")
+        int batchSize,
+
+        @DefaultValue("4")
+        int parallelism
+) {
+}
@@ -0,0 +1,40 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Client-side limits for openFDA. The per-minute limit applies to both tiers, the daily quota
+ * depends on whether FDA_API_KEY is set.
+ */
+@ConfigurationProperties(prefix = "fda.rate-limit")
+public record FdaRateLimitProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("240")
+        int requestsPerMinute,
+
+        @DefaultValue("40")
+        int burstCapacity,
+
+        @DefaultValue("1000")
+        int anonymousRequestsPerDay,
+
+        @DefaultValue("120000")
+        int keyedRequestsPerDay,
+
+        @DefaultValue("2s")
+        Duration interactiveMaxWait,
+
+        @DefaultValue("30s")
+        Duration batchMaxWait,
+
+        @DefaultValue("0.1")
+        double minimumRateFactor,
+
+        @DefaultValue("0.05")
+        double recoveryStep
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.refresh")
+public record FdaRefreshProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("15m")
+        Duration interval,
+
+        @DefaultValue("1m")
+        Duration initialDelay,
+
+        @DefaultValue("50")
+        int chunkSize,
+
+        @DefaultValue("4")
+        int maxRequestsPerRun,
+
+        @DefaultValue("7d")
+        Duration recheckAfter
+) {
+}
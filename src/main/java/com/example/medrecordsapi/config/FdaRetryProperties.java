@@ -0,0 +1,21 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.retry")
+public record FdaRetryProperties(
+        @DefaultValue("3")
+        int maxAttempts,
+
+        @DefaultValue("200ms")
+        Duration initialBackoff,
+
+        @DefaultValue("5s")
+        Duration maxBackoff,
+
+        @DefaultValue("10s")
+        Duration maxRetryAfter
+) {
+}
@@ -0,0 +1,20 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "fda.search-index")
+public record FdaSearchIndexProperties(
+        @DefaultValue("false")
+        boolean enabled,
+
+        @DefaultValue("true")
+        boolean fallbackEnabled,
+
+        @DefaultValue("1")
+        int maxEdits,
+
+        @DefaultValue("4")
+        int fuzzyMinTermLength
+) {
+}
@@ -0,0 +1,28 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "fda.search-snapshots")
+public record FdaSearchSnapshotProperties(
+        @DefaultValue("true")
+        boolean enabled,
+
+        @DefaultValue("200")
+        int hotSetSize,
+
+        @DefaultValue("2000")
+        int sketchCapacity,
+
+        @DefaultValue("5")
+        long minimumHits,
+
+        @DefaultValue("1m")
+        Duration rebuildInterval,
+
+        @DefaultValue("512KB")
+        DataSize maxBodySize
+) {
+}
@@ -0,0 +1,27 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "jwt.principal")
+public record JwtPrincipalProperties(
+        @DefaultValue("CACHE")
+        PrincipalSource source,
+
+        @DefaultValue("60s")
+        Duration cacheTtl,
+
+        @DefaultValue("10000")
+        long cacheMaximumSize
+) {
+
+    public enum PrincipalSource {
+        /** Load the user on every request. */
+        DATABASE,
+        /** Load the user and keep it for the cache TTL. */
+        CACHE,
+        /** Build the principal from the signed token claims, without loading the user. */
+        CLAIMS
+    }
+}
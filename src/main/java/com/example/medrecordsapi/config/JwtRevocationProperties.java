@@ -0,0 +1,24 @@
+package com.example.medrecordsapi.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "jwt.revocation")
+public record JwtRevocationProperties(
+        @DefaultValue("10s")
+        Duration refreshInterval,
+
+        @DefaultValue("30s")
+        Duration refreshOverlap,
+
+        @DefaultValue("1h")
+        Duration rebuildInterval,
+
+        @DefaultValue("100000")
+        int expectedRevocations,
+
+        @DefaultValue("0.001")
+        double falsePositiveRate
+) {
+}
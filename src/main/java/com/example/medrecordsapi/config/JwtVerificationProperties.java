@@ -0,0 +1,14 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "jwt.verification")
+public record JwtVerificationProperties(
+        @DefaultValue("true")
+        boolean cacheEnabled,
+
+        @DefaultValue("10000")
+        long cacheMaximumSize
+) {
+}
@@ -0,0 +1,17 @@
+package com.example.medrecordsapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "password-encoder")
+public record PasswordEncoderProperties(
+        @DefaultValue("10")
+        int strength,
+
+        @DefaultValue("4")
+        int threads,
+
+        @DefaultValue("32")
+        int queueCapacity
+) {
+}
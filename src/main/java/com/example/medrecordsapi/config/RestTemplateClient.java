@@ -1,14 +1,95 @@
 package com.example.medrecordsapi.config;
 
+import com.example.medrecordsapi.resilience.FdaAttempt;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.URI;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@RequiredArgsConstructor
 public class RestTemplateClient {
 
+    private static final String POOL_METRICS_NAME = "fda";
+
+    private final FdaHttpClientProperties properties;
+
+    @Bean
+    public PoolingHttpClientConnectionManager fdaConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager =
+                PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(properties.maxConnections())
+                        .setMaxConnPerRoute(properties.maxConnectionsPerRoute())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(toTimeout(properties.connectTimeout()))
+                                .setSocketTimeout(toTimeout(properties.responseTimeout()))
+                                .setTimeToLive(toTimeValue(properties.connectionTimeToLive()))
+                                .setValidateAfterInactivity(
+                                        toTimeValue(properties.validateAfterInactivity()))
+                                .build())
+                        .build();
+
+        // Exposes leased, pending and available connections of the pool
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_METRICS_NAME)
+                .bindTo(meterRegistry);
+
+        return connectionManager;
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CloseableHttpClient fdaHttpClient(
+            PoolingHttpClientConnectionManager fdaConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(toTimeout(properties.connectionRequestTimeout()))
+                .setResponseTimeout(toTimeout(properties.responseTimeout()))
+                .setConnectionKeepAlive(toTimeValue(properties.keepAlive()))
+                .build();
+
+        // Content compression is enabled by default, gzip and deflate bodies are decoded
+        return HttpClients.custom()
+                .setConnectionManager(fdaConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(properties.idleEvictionTimeout()))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient fdaHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(fdaHttpClient) {
+            @Override
+            protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+                ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+                // Lets a cancelled attempt abort the exchange instead of waiting out the read
+                if (request instanceof Cancellable cancellable) {
+                    FdaAttempt.register(cancellable);
+                }
+                return request;
+            }
+        });
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue toTimeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
     }
 }
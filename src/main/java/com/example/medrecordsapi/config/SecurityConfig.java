@@ -1,5 +1,6 @@
 package com.example.medrecordsapi.config;
 
+import com.example.medrecordsapi.security.BoundedPasswordEncoder;
 import com.example.medrecordsapi.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -12,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,6 +22,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String LOGOUT_PATH = "/auth/logout";
     private static final String[] AUTH_WHITELIST = {
             // Swagger v3
             "/v3/api-docs/**",
@@ -34,8 +35,9 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
-    public PasswordEncoder getPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder getPasswordEncoder(PasswordEncoderProperties properties,
+                                              ExecutorFactory executorFactory) {
+        return new BoundedPasswordEncoder(properties, executorFactory);
     }
 
     @Bean
@@ -45,6 +47,8 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(
                         auth -> auth
+                                .requestMatchers(LOGOUT_PATH)
+                                .authenticated()
                                 .requestMatchers(AUTH_WHITELIST)
                                 .permitAll()
                                 .anyRequest()
@@ -15,6 +15,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -67,4 +68,19 @@ public class AuthenticationController {
 
         return response;
     }
+
+    @Operation(summary = "Logout the current user",
+            description = "Revokes the JWT token the request is authenticated with, "
+                    + "so it is rejected on every instance before it expires.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204",
+                    description = "Token revoked"),
+            @ApiResponse(responseCode = "401",
+                    description = "Missing, invalid or already revoked token")})
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logout(Authentication authentication) {
+        log.info("Received logout request for email: {}", authentication.getName());
+        authenticationService.logout(authentication);
+    }
 }
@@ -1,6 +1,16 @@
 package com.example.medrecordsapi.controller;
 
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordBatchSaveRequestDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordCursorPageDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordProjectionDto;
 import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSaveResultDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSliceDto;
+import com.example.medrecordsapi.search.SearchSnapshotCache;
+import com.example.medrecordsapi.search.SearchSnapshotCache.SearchQuery;
+import com.example.medrecordsapi.search.SearchSnapshotCache.Snapshot;
+import com.example.medrecordsapi.service.AsyncDrugRecordService;
+import com.example.medrecordsapi.service.DrugRecordExportService;
 import com.example.medrecordsapi.service.DrugRecordService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -8,14 +18,27 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -29,29 +52,74 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class DrugRecordController {
 
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String WILDCARD_ENCODING = "*";
+
     private final DrugRecordService drugRecordService;
+    private final AsyncDrugRecordService asyncDrugRecordService;
+    private final DrugRecordExportService drugRecordExportService;
+    private final SearchSnapshotCache searchSnapshotCache;
 
     @Operation(summary = "Search drug records",
             description = "Search for drug records based on manufacturer and/or brand name. "
                     + "Parameter can contain part or the full name. "
-                    + "Pagination is supported via the 'page' and 'size' parameters.")
+                    + "Pagination is supported via the 'page' and 'size' parameters. "
+                    + "Frequent searches are served from precomputed snapshots with an ETag, "
+                    + "gzip encoded if accepted.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "304", description = "Snapshot matches If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Invalid input parameters")
     })
     @GetMapping("/search")
-    public JsonNode searchDrugRecords(
+    public ResponseEntity<Object> searchDrugRecords(
             @RequestParam String manufacturerName,
             @RequestParam(required = false) String brandName,
             @RequestParam(defaultValue = "1") @Positive int page,
-            @RequestParam(defaultValue = "10") @Positive int size) throws JsonProcessingException {
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) throws JsonProcessingException {
         log.info("Searching drug records for manufacturer: {}, brand: {}, page: {}, size: {}",
                 manufacturerName, brandName, page, size);
+        Optional<Snapshot> snapshot = searchSnapshotCache.lookup(
+                new SearchQuery(manufacturerName, brandName, page, size));
+        if (snapshot.isPresent()) {
+            log.info("Search served from snapshot.");
+            return snapshotResponse(snapshot.get(), acceptEncoding, ifNoneMatch);
+        }
+
         JsonNode response =
                 drugRecordService.searchDrugRecords(manufacturerName, brandName, page, size);
         log.info("Search complete. Found {} records.", response.size());
 
-        return response;
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Stream drug records",
+            description = "Same as the search endpoint, but the FDA response body is streamed "
+                    + "to the client as it arrives instead of being buffered. The optional "
+                    + "'fields' parameter limits each result to the given dot separated paths, "
+                    + "e.g. 'application_number,openfda.brand_name'.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed drug records"),
+            @ApiResponse(responseCode = "404", description = "Invalid input parameters")
+    })
+    @GetMapping("/search/stream")
+    public void streamDrugRecords(
+            @RequestParam String manufacturerName,
+            @RequestParam(required = false) String brandName,
+            @RequestParam(defaultValue = "1") @Positive int page,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) List<String> fields,
+            HttpServletResponse response) throws IOException {
+        log.info("Streaming drug records for manufacturer: {}, brand: {}, page: {}, size: {}",
+                manufacturerName, brandName, page, size);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        drugRecordService.streamDrugRecords(manufacturerName, brandName, page, size, fields,
+                response.getOutputStream());
+        log.info("Streaming complete.");
     }
 
     @Operation(summary = "Save a drug record",
@@ -73,19 +141,176 @@ public class DrugRecordController {
         return response;
     }
 
+    @Operation(summary = "Save many drug records",
+            description = "Save drug records for a list of application numbers fetched from "
+                    + "FDA. Numbers are looked up in chunks with OR queries and stored in one "
+                    + "bulk write. Every number gets its own status (SAVED, NOT_FOUND or FAILED), "
+                    + "so only failed ones need to be retried.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed"),
+            @ApiResponse(responseCode = "400", description = "Invalid list of application numbers")
+    })
+    @PostMapping("/batch")
+    public List<DrugRecordSaveResultDto> saveDrugRecords(
+            @RequestBody @Valid DrugRecordBatchSaveRequestDto request) {
+        log.info("Saving {} drug records in batch", request.applicationNumbers().size());
+        List<DrugRecordSaveResultDto> response =
+                drugRecordService.saveDrugRecords(request.applicationNumbers());
+        log.info("Batch save of {} drug records finished.", response.size());
+
+        return response;
+    }
+
+    @Operation(summary = "Search drug records asynchronously",
+            description = "Same as the search endpoint, but the FDA lookup runs off the request "
+                    + "thread and the response is written once it completes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "404", description = "Invalid input parameters"),
+            @ApiResponse(responseCode = "503", description = "Too many pending FDA lookups")
+    })
+    @GetMapping("/async/search")
+    public CompletableFuture<JsonNode> searchDrugRecordsAsync(
+            @RequestParam String manufacturerName,
+            @RequestParam(required = false) String brandName,
+            @RequestParam(defaultValue = "1") @Positive int page,
+            @RequestParam(defaultValue = "10") @Positive int size) {
+        log.info("Async search for manufacturer: {}, brand: {}, page: {}, size: {}",
+                manufacturerName, brandName, page, size);
+
+        return asyncDrugRecordService.searchDrugRecords(manufacturerName, brandName, page, size);
+    }
+
+    @Operation(summary = "Save a drug record asynchronously",
+            description = "Same as the save endpoint, but the FDA lookup runs off the request "
+                    + "thread and the response is written once it completes.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Drug record successfully saved"),
+            @ApiResponse(responseCode = "404", description = "Drug record not found"),
+            @ApiResponse(responseCode = "503", description = "Too many pending FDA lookups")
+    })
+    @GetMapping("/async/save/{applicationNumber}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<DrugRecordResponseDto> saveDrugRecordAsync(
+            @PathVariable String applicationNumber) {
+        log.info("Async save of drug record with application number: {}", applicationNumber);
+
+        return asyncDrugRecordService.saveDrugRecord(applicationNumber);
+    }
+
     @Operation(summary = "Get all stored drug records",
-            description = "Fetch all stored drug records with pagination support.")
+            description = "Fetch all stored drug records with pagination support. The optional "
+                    + "'fields' parameter limits each record to the given properties, e.g. "
+                    + "'applicationNumber,manufacturerName'; other properties are not loaded.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records")
+            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "400", description = "Unknown fields")
     })
     @GetMapping
-    public List<DrugRecordResponseDto> getAllDrugRecords(Pageable pageable) {
-        log.info("Fetching all drug records with pagination: page {}, size {}",
-                pageable.getPageNumber(), pageable.getPageSize());
-        List<DrugRecordResponseDto> response = drugRecordService.getAllDrugRecords(pageable);
+    public List<?> getAllDrugRecords(
+            Pageable pageable,
+            @RequestParam(required = false) List<String> fields) {
+        log.info("Fetching all drug records with pagination: page {}, size {}, fields {}",
+                pageable.getPageNumber(), pageable.getPageSize(), fields);
+        List<DrugRecordResponseDto> response =
+                drugRecordService.getAllDrugRecords(pageable, fields);
         log.info("Fetched {} drug records.", response.size());
 
-        return response;
+        return project(response, fields);
+    }
+
+    @Operation(summary = "Get stored drug records with a cursor",
+            description = "Fetch stored drug records ordered by application number. Pass the "
+                    + "'nextCursor' of a response as 'cursor' to get the following page. Unlike "
+                    + "page numbers, deep pages are as fast as the first one. The optional "
+                    + "'fields' parameter works as for the listing; the application number is "
+                    + "always returned.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unknown fields")
+    })
+    @GetMapping("/cursor")
+    public DrugRecordCursorPageDto<?> getDrugRecordsAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Positive int size,
+            @RequestParam(required = false) List<String> fields) {
+        log.info("Fetching drug records with cursor: {}, size: {}, fields: {}",
+                cursor, size, fields);
+        DrugRecordCursorPageDto<DrugRecordResponseDto> response =
+                drugRecordService.getDrugRecordsAfter(cursor, size, fields);
+        log.info("Fetched {} drug records.", response.drugRecords().size());
+
+        return new DrugRecordCursorPageDto<>(project(response.drugRecords(), fields),
+                response.nextCursor());
+    }
+
+    @Operation(summary = "Export all stored drug records",
+            description = "Streams every stored drug record as newline delimited JSON, one "
+                    + "record per line, ordered by application number. The whole collection is "
+                    + "dumped in a single response.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully exported drug records")
+    })
+    @GetMapping("/export")
+    public void exportDrugRecords(HttpServletResponse response) throws IOException {
+        log.info("Exporting all drug records");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        long exported = drugRecordExportService.exportDrugRecords(response.getOutputStream());
+        log.info("Export complete. Exported {} records.", exported);
+    }
+
+    @Operation(summary = "Find stored drug records by manufacturer prefix",
+            description = "Fetch stored drug records whose manufacturer name starts with the "
+                    + "given prefix (case sensitive), ordered by manufacturer name. Pages are "
+                    + "zero based and no total count is computed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "400", description = "Invalid input parameters")
+    })
+    @GetMapping("/by-manufacturer")
+    public DrugRecordSliceDto findDrugRecordsByManufacturerPrefix(
+            @RequestParam @NotBlank String prefix,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive int size) {
+        log.info("Fetching drug records by manufacturer prefix: {}, page: {}, size: {}",
+                prefix, page, size);
+
+        return drugRecordService.findDrugRecordsByManufacturerPrefix(prefix, page, size);
+    }
+
+    @Operation(summary = "Find stored drug records by substance",
+            description = "Fetch stored drug records with the given substance name, ignoring "
+                    + "case. Pages are zero based and no total count is computed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "400", description = "Invalid input parameters")
+    })
+    @GetMapping("/by-substance")
+    public DrugRecordSliceDto findDrugRecordsBySubstanceName(
+            @RequestParam @NotBlank String name,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive int size) {
+        log.info("Fetching drug records by substance: {}, page: {}, size: {}", name, page, size);
+
+        return drugRecordService.findDrugRecordsBySubstanceName(name, page, size);
+    }
+
+    @Operation(summary = "Find stored drug records by product NDC",
+            description = "Fetch stored drug records that contain the exact product NDC, "
+                    + "e.g. '0071-0155'. Pages are zero based and no total count is computed.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched drug records"),
+            @ApiResponse(responseCode = "400", description = "Invalid input parameters")
+    })
+    @GetMapping("/by-ndc")
+    public DrugRecordSliceDto findDrugRecordsByProductNumber(
+            @RequestParam @NotBlank String productNumber,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive int size) {
+        log.info("Fetching drug records by product number: {}, page: {}, size: {}",
+                productNumber, page, size);
+
+        return drugRecordService.findDrugRecordsByProductNumber(productNumber, page, size);
     }
 
     @Operation(summary = "Find stored drug record by application number",
@@ -104,4 +329,76 @@ public class DrugRecordController {
 
         return response;
     }
+
+    private ResponseEntity<Object> snapshotResponse(Snapshot snapshot, String acceptEncoding,
+                                                    String ifNoneMatch) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = gzip ? snapshot.gzipEtag() : snapshot.etag();
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+
+        return response.body(gzip ? snapshot.gzipBody() : snapshot.body());
+    }
+
+    // gzip is chosen when its q-value, or that of a wildcard without a gzip entry, is above 0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double quality = quality(parts);
+            if (GZIP_ENCODING.equalsIgnoreCase(name)) {
+                gzipQuality = quality;
+            } else if (WILDCARD_ENCODING.equals(name)) {
+                wildcardQuality = quality;
+            }
+        }
+
+        double quality = gzipQuality != null ? gzipQuality
+                : wildcardQuality != null ? wildcardQuality : 0;
+        return quality > 0;
+    }
+
+    private static double quality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String parameter = codingParts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    // Only a projection leaves out the properties that were not loaded; the full records keep
+    // returning null properties
+    private static List<?> project(List<DrugRecordResponseDto> drugRecords,
+                                   List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return drugRecords;
+        }
+
+        return drugRecords.stream().map(DrugRecordProjectionDto::of).toList();
+    }
 }
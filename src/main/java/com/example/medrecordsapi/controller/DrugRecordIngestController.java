@@ -0,0 +1,53 @@
+package com.example.medrecordsapi.controller;
+
+import com.example.medrecordsapi.dto.ingest.IngestStatusDto;
+import com.example.medrecordsapi.service.DrugRecordIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Drug Record Ingest",
+        description = "Bulk loading of the openFDA drugsfda dataset")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/drug-records/ingest")
+@Slf4j
+public class DrugRecordIngestController {
+
+    private final DrugRecordIngestService drugRecordIngestService;
+
+    @Operation(summary = "Start a bulk ingest",
+            description = "Starts loading the configured drugsfda bulk download file in the "
+                    + "background. An interrupted ingest resumes from its last checkpoint.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Ingest started"),
+            @ApiResponse(responseCode = "409", description = "An ingest is already running")
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public IngestStatusDto startIngest() {
+        log.info("Starting bulk ingest");
+
+        return drugRecordIngestService.startIngest();
+    }
+
+    @Operation(summary = "Get bulk ingest progress",
+            description = "Returns the state, committed offset and throughput of the current "
+                    + "or last ingest.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched progress")
+    })
+    @GetMapping
+    public IngestStatusDto getIngestStatus() {
+        return drugRecordIngestService.getStatus();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.medrecordsapi.controller;
+
+import com.example.medrecordsapi.dto.refresh.RefreshStatusDto;
+import com.example.medrecordsapi.service.DrugRecordRefreshService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Drug Record Refresh",
+        description = "Synchronization of stored drug records with openFDA")
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/drug-records/refresh")
+@Slf4j
+public class DrugRecordRefreshController {
+
+    private final DrugRecordRefreshService drugRecordRefreshService;
+
+    @Operation(summary = "Start a refresh run",
+            description = "Re-fetches the least recently checked drug records from openFDA in "
+                    + "the background and updates the ones that changed. Runs are also "
+                    + "scheduled periodically.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Refresh started"),
+            @ApiResponse(responseCode = "409", description = "A refresh is already running")
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RefreshStatusDto startRefresh() {
+        log.info("Starting drug record refresh");
+
+        return drugRecordRefreshService.startRefresh();
+    }
+
+    @Operation(summary = "Get refresh progress",
+            description = "Returns the state, record counts and throughput of the current or "
+                    + "last refresh run.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched progress")
+    })
+    @GetMapping
+    public RefreshStatusDto getRefreshStatus() {
+        return drugRecordRefreshService.getStatus();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.medrecordsapi.dto.drugrecord;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record DrugRecordBatchSaveRequestDto(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@NotBlank String> applicationNumbers
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.medrecordsapi.dto.drugrecord;
+
+import java.util.List;
+
+public record DrugRecordCursorPageDto<T>(
+        List<T> drugRecords,
+        String nextCursor
+) {
+}
@@ -0,0 +1,23 @@
+package com.example.medrecordsapi.dto.drugrecord;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * A drug record limited to the properties requested with {@code fields}. Properties that were
+ * not requested are left out instead of being returned as null.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DrugRecordProjectionDto(
+        String applicationNumber,
+        String manufacturerName,
+        String substanceName,
+        List<String> productNumbers
+) {
+
+    public static DrugRecordProjectionDto of(DrugRecordResponseDto drugRecord) {
+        return new DrugRecordProjectionDto(drugRecord.applicationNumber(),
+                drugRecord.manufacturerName(), drugRecord.substanceName(),
+                drugRecord.productNumbers());
+    }
+}
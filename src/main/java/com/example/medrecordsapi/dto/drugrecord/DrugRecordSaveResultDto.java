@@ -0,0 +1,18 @@
+package com.example.medrecordsapi.dto.drugrecord;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DrugRecordSaveResultDto(
+        String applicationNumber,
+        SaveStatus status,
+        DrugRecordResponseDto drugRecord,
+        String error
+) {
+
+    public enum SaveStatus {
+        SAVED,
+        NOT_FOUND,
+        FAILED
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.medrecordsapi.dto.drugrecord;
+
+import java.util.List;
+
+public record DrugRecordSliceDto(
+        List<DrugRecordResponseDto> drugRecords,
+        int page,
+        int size,
+        boolean hasNext
+) {
+}
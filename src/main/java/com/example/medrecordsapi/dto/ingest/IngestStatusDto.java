@@ -0,0 +1,24 @@
+package com.example.medrecordsapi.dto.ingest;
+
+import java.time.Instant;
+
+public record IngestStatusDto(
+        IngestState state,
+        String source,
+        Long total,
+        long resumedFromOffset,
+        long committedOffset,
+        long recordsWritten,
+        double recordsPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+
+    public enum IngestState {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.medrecordsapi.dto.refresh;
+
+import java.time.Instant;
+
+public record RefreshStatusDto(
+        RefreshState state,
+        long recordsChecked,
+        long recordsUpdated,
+        long recordsMissing,
+        int requests,
+        double recordsPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+
+    public enum RefreshState {
+        IDLE,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -2,7 +2,15 @@ package com.example.medrecordsapi.exception;
 
 import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
 import com.example.medrecordsapi.exception.custom.EntityNotFoundException;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.example.medrecordsapi.exception.custom.IngestInProgressException;
+import com.example.medrecordsapi.exception.custom.InvalidCursorException;
+import com.example.medrecordsapi.exception.custom.InvalidFieldsException;
+import com.example.medrecordsapi.exception.custom.RefreshInProgressException;
 import com.example.medrecordsapi.exception.custom.RegistrationException;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
 import io.jsonwebtoken.ExpiredJwtException;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -56,6 +64,30 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidFieldsException(InvalidFieldsException ex) {
+        log.warn("Invalid fields: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<Object> handleBadCredentialsException(BadCredentialsException ex) {
         log.warn("Bad credentials: {}", ex.getMessage());
@@ -107,6 +139,88 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(FdaApiTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleFdaApiTimeoutException(
+            FdaApiTimeoutException ex) {
+        log.warn("FDA API timeout: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.GATEWAY_TIMEOUT,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(FdaApiThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleFdaApiThrottledException(
+            FdaApiThrottledException ex) {
+        log.warn("FDA API throttled: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS,
+                List.of(ex.getMessage()));
+        HttpHeaders headers = new HttpHeaders();
+        // Retry-After is whole seconds, round up so clients do not retry too early
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(
+                (ex.getRetryAfter().toMillis() + 999) / 1000));
+
+        return new ResponseEntity<>(body, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(FdaApiUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleFdaApiUnavailableException(
+            FdaApiUnavailableException ex) {
+        log.warn("FDA API unavailable: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_GATEWAY,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.BAD_GATEWAY);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(
+            ServiceOverloadedException ex) {
+        log.warn("Service overloaded: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(IngestInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIngestInProgressException(
+            IngestInProgressException ex) {
+        log.warn("Ingest in progress: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RefreshInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleRefreshInProgressException(
+            RefreshInProgressException ex) {
+        log.warn("Refresh in progress: {}", ex.getMessage());
+
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT,
+                List.of(ex.getMessage()));
+
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
         log.error("Unexpected error: {}", ex.getMessage(), ex);
@@ -0,0 +1,15 @@
+package com.example.medrecordsapi.exception.custom;
+
+import java.time.Duration;
+import lombok.Getter;
+
+@Getter
+public class FdaApiThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public FdaApiThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class FdaApiTimeoutException extends RuntimeException {
+
+    public FdaApiTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class FdaApiUnavailableException extends RuntimeException {
+
+    public FdaApiUnavailableException(String message) {
+        super(message);
+    }
+}
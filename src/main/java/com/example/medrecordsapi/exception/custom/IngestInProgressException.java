@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class IngestInProgressException extends RuntimeException {
+
+    public IngestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
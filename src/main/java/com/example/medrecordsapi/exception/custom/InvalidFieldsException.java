@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class InvalidFieldsException extends RuntimeException {
+
+    public InvalidFieldsException(String message) {
+        super(message);
+    }
+}
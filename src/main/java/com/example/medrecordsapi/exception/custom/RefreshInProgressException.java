@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class RefreshInProgressException extends RuntimeException {
+
+    public RefreshInProgressException(String message) {
+        super(message);
+    }
+}
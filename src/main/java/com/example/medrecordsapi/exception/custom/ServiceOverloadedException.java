@@ -0,0 +1,8 @@
+package com.example.medrecordsapi.exception.custom;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.medrecordsapi.mapper;
+
+import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds a {@link DrugRecord} from an openFDA drugsfda payload with a streaming parser.
+ * Only openfda.manufacturer_name[0], openfda.substance_name[0] and openfda.product_ndc[]
+ * of the first result are read, everything else (products, submissions, ...) is skipped
+ * without being materialized.
+ */
+@Component
+public class FdaDrugRecordExtractor {
+
+    private static final String RESULTS_FIELD = "results";
+    private static final String APPLICATION_NUMBER_FIELD = "application_number";
+    private static final String OPENFDA_FIELD = "openfda";
+    private static final String MANUFACTURER_NAME_FIELD = "manufacturer_name";
+    private static final String SUBSTANCE_NAME_FIELD = "substance_name";
+    private static final String PRODUCT_NDC_FIELD = "product_ndc";
+    private static final String NO_DRUGS_FOUND_ERROR = "No drug records found";
+
+    private final JsonFactory jsonFactory;
+
+    public FdaDrugRecordExtractor(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public DrugRecord extractFirstResult(String applicationNumber, String rawJson)
+            throws JsonProcessingException {
+        try (JsonParser parser = jsonFactory.createParser(rawJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DrugRecordNotFoundException(NO_DRUGS_FOUND_ERROR);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (RESULTS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        break;
+                    }
+                    // Nothing after the first result is needed, so the rest is never read
+                    return readResult(parser, applicationNumber);
+                }
+                parser.skipChildren();
+            }
+
+            throw new DrugRecordNotFoundException(NO_DRUGS_FOUND_ERROR);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Extracts all results of a payload, each with the application number of the result itself.
+     * An empty list is returned if there are no results.
+     */
+    public List<DrugRecord> extractResults(String rawJson) throws JsonProcessingException {
+        List<DrugRecord> drugRecords = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(rawJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return drugRecords;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!RESULTS_FIELD.equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    drugRecords.add(readResult(parser));
+                }
+            }
+
+            return drugRecords;
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a single result object the parser is positioned at (START_OBJECT) and leaves the
+     * parser at its END_OBJECT. The application number is taken from the result itself, or from
+     * openfda.application_number[0] if the result has none.
+     */
+    public DrugRecord readResult(JsonParser parser) throws IOException {
+        return readResult(parser, null);
+    }
+
+    /**
+     * Same as {@link #readResult(JsonParser)}, but the given application number takes precedence
+     * over the one in the result.
+     */
+    public DrugRecord readResult(JsonParser parser, String applicationNumber)
+            throws IOException {
+        String resultApplicationNumber = null;
+        String openFdaApplicationNumber = null;
+        String manufacturerName = null;
+        String substanceName = null;
+        List<String> productNumbers = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (APPLICATION_NUMBER_FIELD.equals(field) && value == JsonToken.VALUE_STRING) {
+                resultApplicationNumber = parser.getText();
+                continue;
+            }
+            if (!OPENFDA_FIELD.equals(field) || value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String openFdaField = parser.currentName();
+                parser.nextToken();
+                switch (openFdaField) {
+                    case APPLICATION_NUMBER_FIELD ->
+                            openFdaApplicationNumber = readFirstValue(parser);
+                    case MANUFACTURER_NAME_FIELD -> manufacturerName = readFirstValue(parser);
+                    case SUBSTANCE_NAME_FIELD -> substanceName = readFirstValue(parser);
+                    case PRODUCT_NDC_FIELD -> readAllValues(parser, productNumbers);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (applicationNumber == null) {
+            applicationNumber = resultApplicationNumber != null
+                    ? resultApplicationNumber
+                    : openFdaApplicationNumber;
+        }
+
+        return new DrugRecord(applicationNumber, manufacturerName, substanceName,
+                productNumbers);
+    }
+
+    private String readFirstValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String first = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (first == null) {
+                first = parser.getValueAsString();
+            }
+            parser.skipChildren();
+        }
+
+        return first;
+    }
+
+    private void readAllValues(JsonParser parser, List<String> target) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            target.add(parser.getValueAsString());
+            parser.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.medrecordsapi.mapper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringGeneratorDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies an openFDA response from an input to an output stream token by token, keeping "meta"
+ * and only the requested fields of every entry in "results". Fields are dot separated paths
+ * relative to a result, e.g. "application_number" or "openfda.brand_name".
+ */
+@Component
+public class FdaResultFieldFilter {
+
+    private static final String META_FIELD = "meta";
+    private static final String RESULTS_FIELD = "results";
+    private static final String PATH_SEPARATOR = ".";
+
+    private final JsonFactory jsonFactory;
+
+    public FdaResultFieldFilter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void copy(InputStream body, OutputStream outputStream, List<String> fields)
+            throws IOException {
+        if (fields == null || fields.isEmpty()) {
+            body.transferTo(outputStream);
+            return;
+        }
+
+        JsonGenerator target = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)
+                // Closing the generator must not close the servlet output stream
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (JsonParser parser = jsonFactory.createParser(body);
+                JsonGenerator generator = new FilteringGeneratorDelegate(target,
+                        buildFilter(fields), TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+    }
+
+    private PathFilter buildFilter(List<String> fields) {
+        PathFilter root = new PathFilter();
+        root.children.put(META_FIELD, TokenFilter.INCLUDE_ALL);
+        PathFilter results = new PathFilter();
+        root.children.put(RESULTS_FIELD, results);
+
+        for (String field : fields) {
+            addPath(results, field.trim().split("\\" + PATH_SEPARATOR));
+        }
+
+        return root;
+    }
+
+    private void addPath(PathFilter parent, String[] segments) {
+        PathFilter current = parent;
+        for (int i = 0; i < segments.length - 1; i++) {
+            TokenFilter child = current.children.computeIfAbsent(segments[i],
+                    name -> new PathFilter());
+            if (!(child instanceof PathFilter pathFilter)) {
+                // A parent path was already requested as a whole
+                return;
+            }
+            current = pathFilter;
+        }
+        current.children.put(segments[segments.length - 1], TokenFilter.INCLUDE_ALL);
+    }
+
+    private static class PathFilter extends TokenFilter {
+
+        private final Map<String, TokenFilter> children = new HashMap<>();
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            return children.get(name);
+        }
+
+        @Override
+        public boolean includeEmptyObject(boolean contentsFiltered) {
+            // Keeps one entry per result even when it has none of the requested fields
+            return true;
+        }
+
+        @Override
+        public boolean includeEmptyArray(boolean contentsFiltered) {
+            return true;
+        }
+
+        @Override
+        protected boolean _includeScalar() {
+            return false;
+        }
+    }
+}
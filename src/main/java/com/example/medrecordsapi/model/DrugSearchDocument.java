@@ -0,0 +1,21 @@
+package com.example.medrecordsapi.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "drug_search_documents")
+public class DrugSearchDocument {
+
+    @Id
+    private String applicationNumber;
+    private List<String> manufacturerNames;
+    private List<String> brandNames;
+    private String result;
+}
@@ -0,0 +1,21 @@
+package com.example.medrecordsapi.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "fda_response_cache")
+public class FdaResponseCacheEntry {
+
+    @Id
+    private String id;
+    private String body;
+    private Instant fetchedAt;
+    private Instant expiresAt;
+}
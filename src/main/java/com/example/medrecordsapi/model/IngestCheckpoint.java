@@ -0,0 +1,26 @@
+package com.example.medrecordsapi.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Progress of the ingest of one bulk file. The fingerprint identifies the file content the
+ * offset refers to, so a replaced file with the same name is ingested from the start.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "ingest_checkpoints")
+public class IngestCheckpoint {
+
+    @Id
+    private String source;
+    private String fingerprint;
+    private long committedOffset;
+    private boolean completed;
+    private Instant updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.example.medrecordsapi.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String tokenId;
+    private Instant revokedAt;
+    private Instant expiresAt;
+}
@@ -1,12 +1,32 @@
 package com.example.medrecordsapi.repository;
 
 import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.repository.index.MongoIndexes;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface DrugRecordRepository extends MongoRepository<DrugRecord, String> {
+public interface DrugRecordRepository extends MongoRepository<DrugRecord, String>,
+        DrugRecordRepositoryCustom {
 
     Optional<DrugRecord> findByApplicationNumber(String applicationNumber);
+
+    List<DrugRecord> findAllByOrderByApplicationNumberAsc(Limit limit);
+
+    List<DrugRecord> findByApplicationNumberGreaterThanOrderByApplicationNumberAsc(
+            String applicationNumber, Limit limit);
+
+    // Anchored regex, so only the prefix range of the manufacturer name index is scanned
+    Slice<DrugRecord> findByManufacturerNameStartingWith(String prefix, Pageable pageable);
+
+    @Query(value = "{ 'substanceName': ?0 }", collation = MongoIndexes.CASE_INSENSITIVE_COLLATION)
+    Slice<DrugRecord> findBySubstanceName(String substanceName, Pageable pageable);
+
+    Slice<DrugRecord> findByProductNumbers(String productNumber, Pageable pageable);
 }
@@ -0,0 +1,51 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.DrugRecord;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
+
+public interface DrugRecordRepositoryCustom {
+
+    /**
+     * Inserts or updates the given records by application number in a single unordered bulk
+     * write. Existing documents keep fields that are not mapped, such as the last-checked
+     * timestamp. Failed items are reported through BulkOperationException with their list index.
+     */
+    void upsertAll(List<DrugRecord> drugRecords);
+
+    /**
+     * Returns a page of records loading only the given properties; all other properties are
+     * null. No count query is run.
+     */
+    List<DrugRecord> findAllProjected(Pageable pageable, Collection<String> fields);
+
+    /**
+     * Returns up to {@code limit} records ordered by application number that come after the
+     * given one (from the start if null), loading only the given properties and the application
+     * number.
+     */
+    List<DrugRecord> findAfterProjected(String applicationNumber, int limit,
+                                        Collection<String> fields);
+
+    /**
+     * Streams every record ordered by application number from a server side cursor that
+     * fetches {@code batchSize} documents per round trip. The stream must be closed.
+     */
+    Stream<DrugRecord> streamAll(int batchSize);
+
+    /**
+     * Returns up to {@code limit} records that were never refreshed or last checked before the
+     * given instant, least recently checked first. The last-checked timestamp is stored on the
+     * document but not mapped; upsertAll keeps it, while a whole-document save clears it.
+     */
+    List<DrugRecord> findLeastRecentlyChecked(Instant checkedBefore, int limit);
+
+    /**
+     * Updates the changed records and marks them and the unchanged ones as checked at the given
+     * instant, in a single unordered bulk write. Records deleted meanwhile are not recreated.
+     */
+    void applyRefresh(List<DrugRecord> changed, Collection<String> unchanged, Instant checkedAt);
+}
@@ -0,0 +1,116 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.DrugRecord;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class DrugRecordRepositoryCustomImpl implements DrugRecordRepositoryCustom {
+
+    private static final String ID_FIELD = "_id";
+    private static final String APPLICATION_NUMBER_PROPERTY = "applicationNumber";
+    private static final String LAST_CHECKED_AT_FIELD = "lastCheckedAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void upsertAll(List<DrugRecord> drugRecords) {
+        if (drugRecords.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations =
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DrugRecord.class);
+        for (DrugRecord drugRecord : drugRecords) {
+            // Set field by field instead of replaced, so lastCheckedAt survives a re-save
+            bulkOperations.upsert(
+                    Query.query(Criteria.where(ID_FIELD).is(drugRecord.getApplicationNumber())),
+                    setFields(drugRecord));
+        }
+        bulkOperations.execute();
+    }
+
+    @Override
+    public List<DrugRecord> findAllProjected(Pageable pageable, Collection<String> fields) {
+        Query query = project(new Query().with(pageable), fields);
+
+        return mongoTemplate.find(query, DrugRecord.class);
+    }
+
+    @Override
+    public List<DrugRecord> findAfterProjected(String applicationNumber, int limit,
+                                               Collection<String> fields) {
+        Query query = applicationNumber == null
+                ? new Query()
+                : Query.query(Criteria.where(ID_FIELD).gt(applicationNumber));
+        query.with(Sort.by(ID_FIELD)).limit(limit)
+                .fields().include(fields.toArray(String[]::new));
+
+        return mongoTemplate.find(query, DrugRecord.class);
+    }
+
+    @Override
+    public Stream<DrugRecord> streamAll(int batchSize) {
+        Query query = new Query().with(Sort.by(ID_FIELD)).cursorBatchSize(batchSize);
+
+        return mongoTemplate.stream(query, DrugRecord.class);
+    }
+
+    @Override
+    public List<DrugRecord> findLeastRecentlyChecked(Instant checkedBefore, int limit) {
+        // Matches a missing timestamp as well, which sorts first
+        Query query = Query.query(Criteria.where(LAST_CHECKED_AT_FIELD).not().gte(checkedBefore))
+                .with(Sort.by(LAST_CHECKED_AT_FIELD, ID_FIELD))
+                .limit(limit);
+
+        return mongoTemplate.find(query, DrugRecord.class);
+    }
+
+    @Override
+    public void applyRefresh(List<DrugRecord> changed, Collection<String> unchanged,
+                             Instant checkedAt) {
+        if (changed.isEmpty() && unchanged.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations =
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DrugRecord.class);
+        for (DrugRecord drugRecord : changed) {
+            bulkOperations.updateOne(
+                    Query.query(Criteria.where(ID_FIELD).is(drugRecord.getApplicationNumber())),
+                    setFields(drugRecord).set(LAST_CHECKED_AT_FIELD, checkedAt));
+        }
+        if (!unchanged.isEmpty()) {
+            bulkOperations.updateMulti(Query.query(Criteria.where(ID_FIELD).in(unchanged)),
+                    new Update().set(LAST_CHECKED_AT_FIELD, checkedAt));
+        }
+        bulkOperations.execute();
+    }
+
+    private Update setFields(DrugRecord drugRecord) {
+        return new Update()
+                .set("manufacturerName", drugRecord.getManufacturerName())
+                .set("substanceName", drugRecord.getSubstanceName())
+                .set("productNumbers", drugRecord.getProductNumbers());
+    }
+
+    private Query project(Query query, Collection<String> fields) {
+        query.fields().include(fields.toArray(String[]::new));
+        // The id is returned unless excluded, even when not asked for
+        if (!fields.contains(APPLICATION_NUMBER_PROPERTY)) {
+            query.fields().exclude(ID_FIELD);
+        }
+
+        return query;
+    }
+}
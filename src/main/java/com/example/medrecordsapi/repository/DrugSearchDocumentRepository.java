@@ -0,0 +1,10 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DrugSearchDocumentRepository extends MongoRepository<DrugSearchDocument, String>,
+        DrugSearchDocumentRepositoryCustom {
+}
@@ -0,0 +1,20 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface DrugSearchDocumentRepositoryCustom {
+
+    /**
+     * Inserts or replaces the given documents by application number in a single unordered bulk
+     * write.
+     */
+    void replaceAll(List<DrugSearchDocument> documents);
+
+    /**
+     * Streams every document without its result, from a server side cursor that fetches
+     * {@code batchSize} documents per round trip. The stream must be closed.
+     */
+    Stream<DrugSearchDocument> streamNames(int batchSize);
+}
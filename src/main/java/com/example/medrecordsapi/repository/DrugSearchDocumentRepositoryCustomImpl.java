@@ -0,0 +1,45 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+@RequiredArgsConstructor
+public class DrugSearchDocumentRepositoryCustomImpl implements DrugSearchDocumentRepositoryCustom {
+
+    private static final String ID_FIELD = "_id";
+    private static final String RESULT_FIELD = "result";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void replaceAll(List<DrugSearchDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                DrugSearchDocument.class);
+        for (DrugSearchDocument document : documents) {
+            bulkOperations.replaceOne(
+                    Query.query(Criteria.where(ID_FIELD).is(document.getApplicationNumber())),
+                    document, FindAndReplaceOptions.options().upsert());
+        }
+        bulkOperations.execute();
+    }
+
+    @Override
+    public Stream<DrugSearchDocument> streamNames(int batchSize) {
+        Query query = new Query().cursorBatchSize(batchSize);
+        // The results are the bulk of the collection and are only loaded per page
+        query.fields().exclude(RESULT_FIELD);
+
+        return mongoTemplate.stream(query, DrugSearchDocument.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.IngestCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngestCheckpointRepository extends MongoRepository<IngestCheckpoint, String> {
+}
@@ -0,0 +1,15 @@
+package com.example.medrecordsapi.repository;
+
+import com.example.medrecordsapi.model.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(Instant revokedAt);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant expiresAt);
+}
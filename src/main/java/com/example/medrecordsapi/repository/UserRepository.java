@@ -1,12 +1,16 @@
 package com.example.medrecordsapi.repository;
 
 import com.example.medrecordsapi.model.User;
+import com.example.medrecordsapi.repository.index.MongoIndexes;
 import java.util.Optional;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
 
+    // A derived IgnoreCase query is a case-insensitive regex, which cannot use an index
+    @Query(value = "{ 'email': ?0 }", collation = MongoIndexes.CASE_INSENSITIVE_COLLATION)
     Optional<User> findByEmailIgnoreCase(String email);
 }
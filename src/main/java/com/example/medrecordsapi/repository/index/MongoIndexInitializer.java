@@ -0,0 +1,54 @@
+package com.example.medrecordsapi.repository.index;
+
+import com.example.medrecordsapi.config.MongoIndexProperties;
+import com.example.medrecordsapi.repository.index.MongoIndexes.EntityIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared in {@link MongoIndexes} once the application is ready. Creating
+ * an existing index is a no-op. A failing index is logged and skipped so that one bad index
+ * (e.g. a unique index over duplicated data) does not keep the application from starting.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesOnStartup() {
+        if (properties.createOnStartup()) {
+            createIndexes();
+        }
+    }
+
+    public int createIndexes() {
+        int created = 0;
+        for (EntityIndex index : MongoIndexes.ALL) {
+            try {
+                String name = mongoTemplate.indexOps(index.entityType())
+                        .ensureIndex(index.definition());
+                log.debug("Ensured index {} on {}", name, index.entityType().getSimpleName());
+                created++;
+            } catch (DataAccessResourceFailureException e) {
+                log.warn("MongoDB unavailable, skipping index creation: {}", e.getMessage());
+                break;
+            } catch (DataAccessException e) {
+                log.error("Could not create index {} on {}: {}", index.definition().getIndexKeys(),
+                        index.entityType().getSimpleName(), e.getMessage());
+            }
+        }
+        log.info("Ensured {} of {} MongoDB indexes", created, MongoIndexes.ALL.size());
+
+        return created;
+    }
+}
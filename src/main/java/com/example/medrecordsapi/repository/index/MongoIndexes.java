@@ -0,0 +1,69 @@
+package com.example.medrecordsapi.repository.index;
+
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.model.FdaResponseCacheEntry;
+import com.example.medrecordsapi.model.RevokedToken;
+import com.example.medrecordsapi.model.User;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.query.Collation;
+
+/**
+ * Every secondary index of the application. Queries only use a collation index when they
+ * specify the same collation, so repository methods reference
+ * {@link #CASE_INSENSITIVE_COLLATION} instead of repeating it. Drug record indexes end with
+ * _id so that paged queries sorted by application number need no in-memory sort.
+ */
+public final class MongoIndexes {
+
+    public static final String CASE_INSENSITIVE_COLLATION = "{ 'locale': 'en', 'strength': 2 }";
+
+    public static final List<EntityIndex> ALL = List.of(
+            new EntityIndex(User.class, new Index()
+                    .on("email", Sort.Direction.ASC)
+                    .unique()
+                    .collation(caseInsensitive())
+                    .named("email_ci_unique")),
+            new EntityIndex(DrugRecord.class, new Index()
+                    .on("manufacturerName", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named("manufacturerName_id")),
+            new EntityIndex(DrugRecord.class, new Index()
+                    .on("substanceName", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .collation(caseInsensitive())
+                    .named("substanceName_id_ci")),
+            new EntityIndex(DrugRecord.class, new Index()
+                    .on("productNumbers", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named("productNumbers_id")),
+            new EntityIndex(DrugRecord.class, new Index()
+                    .on("lastCheckedAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named("lastCheckedAt_id")),
+            new EntityIndex(FdaResponseCacheEntry.class, new Index()
+                    .on("expiresAt", Sort.Direction.ASC)
+                    .expire(Duration.ZERO)
+                    .named("expiresAt_ttl")),
+            new EntityIndex(RevokedToken.class, new Index()
+                    .on("revokedAt", Sort.Direction.ASC)
+                    .named("revokedAt")),
+            new EntityIndex(RevokedToken.class, new Index()
+                    .on("expiresAt", Sort.Direction.ASC)
+                    .expire(Duration.ZERO)
+                    .named("expiresAt_ttl"))
+    );
+
+    private MongoIndexes() {
+    }
+
+    public static Collation caseInsensitive() {
+        return Collation.parse(CASE_INSENSITIVE_COLLATION);
+    }
+
+    public record EntityIndex(Class<?> entityType, IndexDefinition definition) {
+    }
+}
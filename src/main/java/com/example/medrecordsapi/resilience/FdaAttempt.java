@@ -0,0 +1,61 @@
+package com.example.medrecordsapi.resilience;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.apache.hc.core5.concurrent.Cancellable;
+
+/**
+ * An openFDA attempt that can be cancelled from another thread, such as a hedged attempt that
+ * lost. A blocking socket read ignores interrupts, so the HTTP request created on the attempt
+ * thread registers itself here and cancelling aborts it, which closes its connection and makes
+ * the read fail at once.
+ */
+public final class FdaAttempt {
+
+    private static final ThreadLocal<FdaAttempt> CURRENT = new ThreadLocal<>();
+
+    private final AtomicReference<Cancellable> request = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Registers an HTTP request with the attempt running on this thread, if any. The request
+     * is aborted right away if that attempt was already cancelled.
+     */
+    public static void register(Cancellable httpRequest) {
+        FdaAttempt attempt = CURRENT.get();
+        if (attempt == null) {
+            return;
+        }
+
+        attempt.request.set(httpRequest);
+        if (attempt.cancelled) {
+            httpRequest.cancel();
+        }
+    }
+
+    /**
+     * Whether the attempt running on this thread was cancelled, so that its failure is the
+     * abort and says nothing about openFDA.
+     */
+    public static boolean isCancelled() {
+        FdaAttempt attempt = CURRENT.get();
+        return attempt != null && attempt.cancelled;
+    }
+
+    <T> T run(Supplier<T> call) {
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+        Cancellable httpRequest = request.get();
+        if (httpRequest != null) {
+            httpRequest.cancel();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.medrecordsapi.resilience;
+
+import com.example.medrecordsapi.config.FdaBulkheadProperties;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the number of openFDA attempts in flight at once. Permits are taken around each
+ * attempt, not while a caller waits for the rate limiter or between retries, so queued batch
+ * callers cannot use up the permits of interactive ones. When api.fda.gov is slow the
+ * remaining request threads stay free for the endpoints served from MongoDB; callers over
+ * the cap are rejected after a short wait.
+ */
+@Component
+@Slf4j
+public class FdaBulkhead {
+
+    private static final String OVERLOADED_ERROR = "Too many concurrent openFDA calls, "
+            + "try again later";
+
+    private final FdaBulkheadProperties properties;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public FdaBulkhead(FdaBulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.permits = new Semaphore(properties.maxConcurrentCalls(), true);
+        this.rejected = meterRegistry.counter("fda.bulkhead.rejected");
+        meterRegistry.gauge("fda.bulkhead.in-flight", permits,
+                semaphore -> properties.maxConcurrentCalls() - semaphore.availablePermits());
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        try (Permit ignored = acquire()) {
+            return call.get();
+        }
+    }
+
+    /**
+     * Takes a permit for a call whose end is not a single method call, such as a streamed
+     * response. Closing the permit more than once releases it only once.
+     *
+     * @throws ServiceOverloadedException if no permit becomes free within the max wait
+     */
+    public Permit acquire() {
+        if (!properties.enabled()) {
+            return new Permit(false);
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(properties.maxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.warn("openFDA bulkhead full, rejecting call");
+            throw new ServiceOverloadedException(OVERLOADED_ERROR);
+        }
+
+        return new Permit(true);
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final AtomicBoolean held;
+
+        private Permit(boolean held) {
+            this.held = new AtomicBoolean(held);
+        }
+
+        @Override
+        public void close() {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.medrecordsapi.resilience;
+
+import com.example.medrecordsapi.config.FdaCircuitBreakerProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Circuit breaker over single openFDA attempts with a count-based sliding window. The circuit
+ * opens when, over at least the minimum number of calls, the share of failed calls (5xx and
+ * timeouts) or of calls slower than the slow call duration reaches its threshold. While open,
+ * calls fail fast; after the open duration a few trial calls decide whether it closes again.
+ * Throttled (429) and other client error responses say nothing about the upstream health and
+ * are not recorded.
+ */
+@Component
+@Slf4j
+public class FdaCircuitBreaker {
+
+    private static final String OPEN_ERROR = "openFDA is unavailable, the circuit is open";
+    private static final String METRIC_NAME = "fda.circuit-breaker.calls";
+    private static final String OUTCOME_TAG = "outcome";
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final FdaCircuitBreakerProperties properties;
+    private final Clock clock;
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter slow;
+    private final Counter rejected;
+
+    private State state = State.CLOSED;
+    private int recordedCalls;
+    private int nextSlot;
+    private int failedCount;
+    private int slowCount;
+    private Instant openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    @Autowired
+    public FdaCircuitBreaker(FdaCircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    FdaCircuitBreaker(FdaCircuitBreakerProperties properties, MeterRegistry meterRegistry,
+                      Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.failedCalls = new boolean[properties.slidingWindowSize()];
+        this.slowCalls = new boolean[properties.slidingWindowSize()];
+        this.successes = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "success");
+        this.failures = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "failure");
+        this.slow = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "slow");
+        this.rejected = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "rejected");
+        meterRegistry.gauge("fda.circuit-breaker.state", this,
+                breaker -> breaker.getState().ordinal());
+    }
+
+    /**
+     * Executes the call unless the circuit is open.
+     *
+     * @throws FdaApiUnavailableException if the circuit is open
+     */
+    public <T> T execute(Supplier<T> call) {
+        Call permission = begin();
+        try {
+            T result = call.get();
+            permission.onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            permission.onError(e);
+            throw e;
+        } finally {
+            // An Error says nothing about openFDA, but a trial call has to return its permit
+            permission.release();
+        }
+    }
+
+    /**
+     * Starts a call whose outcome is known before it ends, such as a streamed response that is
+     * healthy once its headers arrived. Only the first outcome reported is recorded.
+     *
+     * @throws FdaApiUnavailableException if the circuit is open
+     */
+    public Call begin() {
+        if (!properties.enabled()) {
+            return new Call(null);
+        }
+
+        acquirePermission();
+        return new Call(clock.instant());
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN
+                && !clock.instant().isBefore(openedAt.plus(properties.openDuration()))) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+            return;
+        }
+
+        rejected.increment();
+        throw new FdaApiUnavailableException(OPEN_ERROR);
+    }
+
+    private synchronized void onResult(boolean failed, Duration duration) {
+        boolean slowCall = duration.compareTo(properties.slowCallDuration()) >= 0;
+        (failed ? failures : successes).increment();
+        if (slowCall) {
+            slow.increment();
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (failed || slowCall) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSuccesses >= properties.halfOpenCalls()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Started before the circuit opened
+            return;
+        }
+
+        record(failed, slowCall);
+        if (recordedCalls >= properties.minimumCalls()
+                && ((double) failedCount / recordedCalls >= properties.failureRateThreshold()
+                || (double) slowCount / recordedCalls >= properties.slowCallRateThreshold())) {
+            log.warn("Opening openFDA circuit: {} of {} calls failed, {} were slow",
+                    failedCount, recordedCalls, slowCount);
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private void record(boolean failed, boolean slowCall) {
+        if (recordedCalls == failedCalls.length) {
+            failedCount -= failedCalls[nextSlot] ? 1 : 0;
+            slowCount -= slowCalls[nextSlot] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextSlot] = failed;
+        slowCalls[nextSlot] = slowCall;
+        failedCount += failed ? 1 : 0;
+        slowCount += slowCall ? 1 : 0;
+        nextSlot = (nextSlot + 1) % failedCalls.length;
+    }
+
+    private void transitionTo(State newState) {
+        log.info("openFDA circuit {} -> {}", state, newState);
+        state = newState;
+        switch (newState) {
+            case OPEN -> openedAt = clock.instant();
+            case HALF_OPEN -> {
+                halfOpenPermits = properties.halfOpenCalls();
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                recordedCalls = 0;
+                nextSlot = 0;
+                failedCount = 0;
+                slowCount = 0;
+            }
+            default -> throw new IllegalStateException("Unknown state: " + newState);
+        }
+    }
+
+    public final class Call {
+
+        private final Instant start;
+        private boolean recorded;
+
+        private Call(Instant start) {
+            this.start = start;
+            this.recorded = start == null;
+        }
+
+        public void onSuccess() {
+            if (!recorded) {
+                recorded = true;
+                onResult(false, Duration.between(start, clock.instant()));
+            }
+        }
+
+        public void onError(RuntimeException e) {
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            if (isFailure(e)) {
+                onResult(true, Duration.between(start, clock.instant()));
+            } else {
+                onIgnored();
+            }
+        }
+
+        /**
+         * Ends the call without an outcome if none was reported.
+         */
+        public void release() {
+            if (!recorded) {
+                recorded = true;
+                onIgnored();
+            }
+        }
+    }
+
+    private static boolean isFailure(RuntimeException e) {
+        if (e instanceof RestClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+
+        return e instanceof FdaApiTimeoutException;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.medrecordsapi.resilience;
+
+import com.example.medrecordsapi.config.FdaRateLimitProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets for the openFDA per-minute limit and the daily quota of the API key tier.
+ * Callers wait for a token up to the max wait of their lane; batch callers only take a token
+ * while no interactive caller is waiting. The rate adapts to the upstream: a 429 halves it
+ * (down to the minimum factor) and pauses all callers for the Retry-After duration, and each
+ * successful call recovers it by the recovery step.
+ */
+@Component
+@Slf4j
+public class FdaRateLimiter {
+
+    private static final String THROTTLED_ERROR =
+            "openFDA request quota exhausted, try again later";
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private static final long NANOS_PER_DAY = TimeUnit.DAYS.toNanos(1);
+    private static final String PRIORITY_TAG = "priority";
+
+    private final FdaRateLimitProperties properties;
+    private final int requestsPerDay;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final Map<FdaRequestPriority, Timer> waitTimers =
+            new EnumMap<>(FdaRequestPriority.class);
+    private final Map<FdaRequestPriority, Counter> rejections =
+            new EnumMap<>(FdaRequestPriority.class);
+
+    private double minuteTokens;
+    private double dayTokens;
+    private volatile double rateFactor = 1.0;
+    private long refilledAt;
+    private long pausedUntil;
+    private int interactiveWaiting;
+
+    public FdaRateLimiter(FdaRateLimitProperties properties,
+                          @Value("${FDA_API_KEY:}") String apiKey,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.requestsPerDay = apiKey.isEmpty()
+                ? properties.anonymousRequestsPerDay()
+                : properties.keyedRequestsPerDay();
+        this.minuteTokens = properties.burstCapacity();
+        this.dayTokens = requestsPerDay;
+        this.refilledAt = System.nanoTime();
+
+        for (FdaRequestPriority priority : FdaRequestPriority.values()) {
+            String lane = priority.name().toLowerCase();
+            waitTimers.put(priority, meterRegistry.timer("fda.rate-limiter.wait",
+                    PRIORITY_TAG, lane));
+            rejections.put(priority, meterRegistry.counter("fda.rate-limiter.rejected",
+                    PRIORITY_TAG, lane));
+        }
+        meterRegistry.gauge("fda.rate-limiter.requests-per-minute", this,
+                limiter -> limiter.currentRequestsPerMinute());
+        log.info("openFDA rate limit: {} requests/minute, {} requests/day",
+                properties.requestsPerMinute(), requestsPerDay);
+    }
+
+    /**
+     * Takes one token, waiting at most the max wait of the priority's lane.
+     *
+     * @throws FdaApiThrottledException if no token becomes available in time
+     */
+    public void acquire(FdaRequestPriority priority) {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + maxWait(priority).toNanos();
+        lock.lock();
+        if (priority == FdaRequestPriority.INTERACTIVE) {
+            interactiveWaiting++;
+        }
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+                boolean laneFree = priority == FdaRequestPriority.INTERACTIVE
+                        || interactiveWaiting == 0;
+                if (laneFree && now >= pausedUntil && minuteTokens >= 1 && dayTokens >= 1) {
+                    minuteTokens--;
+                    dayTokens--;
+                    waitTimers.get(priority).record(now - start, TimeUnit.NANOSECONDS);
+                    return;
+                }
+
+                long waitNanos;
+                if (laneFree) {
+                    waitNanos = nanosUntilToken(now);
+                    if (now + waitNanos > deadline) {
+                        throw rejected(priority, waitNanos);
+                    }
+                } else {
+                    // Interactive callers signal when they leave, wait for that
+                    waitNanos = deadline - now;
+                    if (waitNanos <= 0) {
+                        throw rejected(priority, nanosUntilToken(now));
+                    }
+                }
+                stateChanged.awaitNanos(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FdaApiThrottledException(THROTTLED_ERROR, Duration.ZERO);
+        } finally {
+            if (priority == FdaRequestPriority.INTERACTIVE) {
+                interactiveWaiting--;
+            }
+            stateChanged.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a token only if one is available right away and no interactive caller is waiting
+     * for it. Used for optional requests such as hedges, which never wait and are not counted
+     * as rejections.
+     */
+    public boolean tryAcquire() {
+        if (!properties.enabled()) {
+            return true;
+        }
+
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            if (interactiveWaiting > 0 || now < pausedUntil || minuteTokens < 1 || dayTokens < 1) {
+                return false;
+            }
+            minuteTokens--;
+            dayTokens--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a token taken by {@link #acquire} for a call that never reached openFDA, such as
+     * one rejected by the bulkhead.
+     */
+    public void refund() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            minuteTokens = Math.min(properties.burstCapacity(), minuteTokens + 1);
+            dayTokens = Math.min(requestsPerDay, dayTokens + 1);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Backs off after openFDA answered 429.
+     */
+    public void onThrottled(Duration retryAfter) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            pausedUntil = Math.max(pausedUntil, now + retryAfter.toNanos());
+            rateFactor = Math.max(properties.minimumRateFactor(), rateFactor / 2);
+            minuteTokens = 0;
+            log.warn("openFDA throttled us, pausing for {} at {} requests/minute", retryAfter,
+                    currentRequestsPerMinute());
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        if (rateFactor >= 1.0) {
+            return;
+        }
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            rateFactor = Math.min(1.0, rateFactor + properties.recoveryStep());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double currentRequestsPerMinute() {
+        return properties.requestsPerMinute() * rateFactor;
+    }
+
+    private FdaApiThrottledException rejected(FdaRequestPriority priority, long retryNanos) {
+        rejections.get(priority).increment();
+
+        return new FdaApiThrottledException(THROTTLED_ERROR, Duration.ofNanos(retryNanos));
+    }
+
+    private Duration maxWait(FdaRequestPriority priority) {
+        return priority == FdaRequestPriority.INTERACTIVE
+                ? properties.interactiveMaxWait()
+                : properties.batchMaxWait();
+    }
+
+    private void refill(long now) {
+        long elapsed = now - refilledAt;
+        if (elapsed <= 0) {
+            return;
+        }
+        minuteTokens = Math.min(properties.burstCapacity(),
+                minuteTokens + elapsed * currentRequestsPerMinute() / NANOS_PER_MINUTE);
+        dayTokens = Math.min(requestsPerDay,
+                dayTokens + (double) elapsed * requestsPerDay / NANOS_PER_DAY);
+        refilledAt = now;
+    }
+
+    private long nanosUntilToken(long now) {
+        long untilMinuteToken = minuteTokens >= 1 ? 0
+                : (long) Math.ceil((1 - minuteTokens) * NANOS_PER_MINUTE
+                        / currentRequestsPerMinute());
+        long untilDayToken = dayTokens >= 1 ? 0
+                : (long) Math.ceil((1 - dayTokens) * NANOS_PER_DAY / requestsPerDay);
+
+        return Math.max(Math.max(untilMinuteToken, untilDayToken),
+                Math.max(pausedUntil - now, 0));
+    }
+}
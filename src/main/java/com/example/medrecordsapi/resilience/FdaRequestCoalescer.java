@@ -0,0 +1,90 @@
+package com.example.medrecordsapi.resilience;
+
+import com.example.medrecordsapi.cache.FdaQueryKey;
+import com.example.medrecordsapi.config.FdaCoalescingProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight execution of identical FDA queries. The first caller for a key performs the
+ * upstream call, concurrent callers for the same key wait for its outcome instead of opening
+ * their own connection.
+ */
+@Component
+@Slf4j
+public class FdaRequestCoalescer {
+
+    private static final String METRIC_NAME = "fda.coalescing";
+    private static final String RESULT_TAG = "result";
+    private static final String TIMEOUT_ERROR = "Timed out waiting for the FDA API response";
+
+    private final FdaCoalescingProperties properties;
+    private final ConcurrentMap<FdaQueryKey, CompletableFuture<String>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter joined;
+    private final Counter timeouts;
+
+    public FdaRequestCoalescer(FdaCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.leaders = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "leader");
+        this.joined = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "joined");
+        this.timeouts = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "timeout");
+    }
+
+    public String execute(FdaQueryKey key, Supplier<String> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            log.debug("Joining in-flight FDA request for key: {}", key);
+            joined.increment();
+            return await(existing);
+        }
+
+        leaders.increment();
+        try {
+            String result = call.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private String await(CompletableFuture<String> shared) {
+        try {
+            return shared.get(properties.waitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new FdaApiTimeoutException(TIMEOUT_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FdaApiTimeoutException(TIMEOUT_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.medrecordsapi.resilience;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaHedgingProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedges interactive openFDA requests. When an attempt has not answered within the rolling
+ * percentile of recent attempt latencies, one backup attempt is sent and whichever succeeds
+ * first is used. The other is cancelled: its HTTP request is aborted and its thread
+ * interrupted, so it gives back its bulkhead permit and connection at once. Each request earns a
+ * fraction of a hedge (the max hedge rate), so hedges stay a bounded share of the traffic, and
+ * a backup also needs a rate limiter token that is available right away.
+ */
+@Component
+@Slf4j
+public class FdaRequestHedger {
+
+    private static final String THREAD_PREFIX = "fda-hedge-";
+    private static final String INTERRUPTED_ERROR = "Interrupted while waiting for FDA API";
+    private static final String METRIC_NAME = "fda.hedging.requests";
+    private static final String OUTCOME_TAG = "outcome";
+    private static final int DELAY_RECOMPUTE_INTERVAL = 50;
+    private static final double MAX_HEDGE_BURST = 10;
+    private static final long NOT_ENOUGH_SAMPLES = -1;
+
+    private final FdaHedgingProperties properties;
+    private final FdaRateLimiter rateLimiter;
+    private final ExecutorService executor;
+    private final long[] latencies;
+    private final Timer latency;
+    private final Counter notHedged;
+    private final Counter skipped;
+    private final Counter primaryWon;
+    private final Counter hedgeWon;
+
+    private int recordedLatencies;
+    private int nextSlot;
+    private double hedgeBudget;
+    private volatile long hedgeDelayNanos = NOT_ENOUGH_SAMPLES;
+
+    public FdaRequestHedger(FdaHedgingProperties properties, FdaRateLimiter rateLimiter,
+                            ExecutorFactory executorFactory, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.executor = executorFactory.newBoundedExecutor(THREAD_PREFIX, properties.threads(),
+                properties.threads());
+        this.latencies = new long[properties.windowSize()];
+        this.latency = Timer.builder("fda.interactive.latency")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.notHedged = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "not-hedged");
+        this.skipped = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "skipped");
+        this.primaryWon = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "primary-won");
+        this.hedgeWon = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "hedge-won");
+        meterRegistry.gauge("fda.hedging.delay", this,
+                hedger -> Math.max(hedger.hedgeDelayNanos, 0) / 1_000_000.0);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the call, hedged if enabled. The latency of every call is recorded in
+     * fda.interactive.latency either way, so the effect of hedging shows in its percentiles.
+     */
+    public <T> T execute(Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return properties.enabled() ? hedge(call) : call.get();
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T hedge(Supplier<T> call) {
+        earnHedge();
+        HedgedAttempt<T> primary;
+        try {
+            primary = submit(call);
+        } catch (RejectedExecutionException e) {
+            notHedged.increment();
+            return call.get();
+        }
+
+        HedgedAttempt<T> backup = null;
+        try {
+            long delay = hedgeDelayNanos;
+            if (delay == NOT_ENOUGH_SAMPLES) {
+                notHedged.increment();
+                return await(primary.result());
+            }
+            try {
+                T result = primary.result().get(delay, TimeUnit.NANOSECONDS);
+                notHedged.increment();
+                return result;
+            } catch (TimeoutException e) {
+                log.debug("No FDA response within {}ms, considering a hedge",
+                        delay / 1_000_000);
+            } catch (ExecutionException e) {
+                return await(primary.result());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FdaApiTimeoutException(INTERRUPTED_ERROR);
+            }
+
+            backup = tryHedge(call);
+            if (backup == null) {
+                skipped.increment();
+                return await(primary.result());
+            }
+
+            CompletableFuture<T> first = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+            primary.result().whenComplete((result, error) -> settle(first, result, error,
+                    failures, primaryWon));
+            backup.result().whenComplete((result, error) -> settle(first, result, error,
+                    failures, hedgeWon));
+            return await(first);
+        } finally {
+            // The loser, or an attempt whose caller was interrupted, is still running
+            primary.cancel();
+            if (backup != null) {
+                backup.cancel();
+            }
+        }
+    }
+
+    private <T> HedgedAttempt<T> submit(Supplier<T> call) {
+        FdaAttempt attempt = new FdaAttempt();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                T value = attempt.run(call);
+                recordLatency(System.nanoTime() - start);
+                result.complete(value);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return new HedgedAttempt<>(result, task, attempt);
+    }
+
+    private <T> HedgedAttempt<T> tryHedge(Supplier<T> call) {
+        synchronized (this) {
+            if (hedgeBudget < 1 || !rateLimiter.tryAcquire()) {
+                return null;
+            }
+            hedgeBudget--;
+        }
+
+        try {
+            return submit(call);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private synchronized void earnHedge() {
+        hedgeBudget = Math.min(hedgeBudget + properties.maxHedgeRate(), MAX_HEDGE_BURST);
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[nextSlot] = nanos;
+        nextSlot = (nextSlot + 1) % latencies.length;
+        recordedLatencies = Math.min(recordedLatencies + 1, latencies.length);
+
+        if (recordedLatencies >= properties.minimumSamples()
+                && (nextSlot % DELAY_RECOMPUTE_INTERVAL == 0
+                || hedgeDelayNanos == NOT_ENOUGH_SAMPLES)) {
+            long[] sorted = Arrays.copyOf(latencies, recordedLatencies);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(properties.percentile() * sorted.length) - 1;
+            hedgeDelayNanos = Math.max(sorted[Math.max(index, 0)],
+                    properties.minimumDelay().toNanos());
+        }
+    }
+
+    private static <T> void settle(CompletableFuture<T> first, T result, Throwable error,
+                                   AtomicInteger failures, Counter winner) {
+        if (error == null) {
+            if (first.complete(result)) {
+                winner.increment();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(error instanceof CompletionException
+                    && error.getCause() != null ? error.getCause() : error);
+        }
+    }
+
+    private record HedgedAttempt<T>(CompletableFuture<T> result, Future<?> task,
+                                    FdaAttempt attempt) {
+
+        void cancel() {
+            if (result.isDone()) {
+                return;
+            }
+            attempt.cancel();
+            task.cancel(true);
+            result.cancel(false);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new FdaApiTimeoutException(INTERRUPTED_ERROR);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.medrecordsapi.resilience;
+
+/**
+ * Lane of an openFDA request in the rate limiter. Interactive requests are served before any
+ * waiting batch request.
+ */
+public enum FdaRequestPriority {
+    INTERACTIVE,
+    BATCH
+}
@@ -0,0 +1,167 @@
+package com.example.medrecordsapi.resilience;
+
+import com.example.medrecordsapi.config.FdaRetryProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Runs openFDA calls through the rate limiter and retries throttled (429) and server error
+ * (5xx) responses with full-jitter exponential backoff. A Retry-After header sets the minimum
+ * delay and pauses the limiter for every caller; a Retry-After beyond the configured maximum
+ * is not waited for. Other error responses are passed on to the caller unchanged. A call
+ * rejected locally by the bulkhead or the open circuit never reached openFDA, so its token is
+ * given back.
+ */
+@Component
+@Slf4j
+public class FdaRequestScheduler {
+
+    private static final String METRIC_NAME = "fda.requests";
+    private static final String RETRIES_METRIC = "fda.retries";
+    private static final String OUTCOME_TAG = "outcome";
+    private static final String REASON_TAG = "reason";
+    private static final String THROTTLED = "throttled";
+    private static final String SERVER_ERROR = "server_error";
+    private static final String THROTTLED_ERROR = "openFDA is throttling requests, try again later";
+    private static final String UNAVAILABLE_ERROR = "openFDA is unavailable, try again later";
+    private static final String INTERRUPTED_ERROR = "Interrupted while waiting to retry openFDA";
+
+    private final FdaRetryProperties properties;
+    private final FdaRateLimiter rateLimiter;
+    private final Counter successes;
+    private final Counter throttled;
+    private final Counter serverErrors;
+    private final Counter clientErrors;
+    private final Counter throttledRetries;
+    private final Counter serverErrorRetries;
+
+    public FdaRequestScheduler(FdaRetryProperties properties, FdaRateLimiter rateLimiter,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.successes = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "success");
+        this.throttled = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, THROTTLED);
+        this.serverErrors = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, SERVER_ERROR);
+        this.clientErrors = meterRegistry.counter(METRIC_NAME, OUTCOME_TAG, "client_error");
+        this.throttledRetries = meterRegistry.counter(RETRIES_METRIC, REASON_TAG, THROTTLED);
+        this.serverErrorRetries = meterRegistry.counter(RETRIES_METRIC, REASON_TAG, SERVER_ERROR);
+    }
+
+    /**
+     * Executes the call, retrying throttled and failed attempts.
+     *
+     * @throws FdaApiThrottledException   if throttled locally or by openFDA on the last attempt
+     * @throws FdaApiUnavailableException if openFDA answered 5xx on the last attempt
+     */
+    public <T> T execute(FdaRequestPriority priority, Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                rateLimiter.acquire(priority);
+            } catch (FdaApiThrottledException e) {
+                throttled.increment();
+                throw e;
+            }
+
+            try {
+                T result = call.get();
+                rateLimiter.onSuccess();
+                successes.increment();
+                return result;
+            } catch (ServiceOverloadedException | FdaApiUnavailableException e) {
+                rateLimiter.refund();
+                throw e;
+            } catch (RestClientResponseException e) {
+                HttpStatus status = HttpStatus.resolve(e.getStatusCode().value());
+                boolean throttledResponse = status == HttpStatus.TOO_MANY_REQUESTS;
+                if (!throttledResponse && !e.getStatusCode().is5xxServerError()) {
+                    clientErrors.increment();
+                    throw e;
+                }
+
+                Duration retryAfter = retryAfter(e.getResponseHeaders());
+                if (throttledResponse) {
+                    rateLimiter.onThrottled(retryAfter != null ? retryAfter
+                            : properties.initialBackoff());
+                }
+                boolean retryAfterTooLong = retryAfter != null
+                        && retryAfter.compareTo(properties.maxRetryAfter()) > 0;
+                if (attempt >= properties.maxAttempts() || retryAfterTooLong) {
+                    throw exhausted(throttledResponse, retryAfter, e);
+                }
+
+                (throttledResponse ? throttledRetries : serverErrorRetries).increment();
+                Duration delay = backoff(attempt, retryAfter);
+                log.warn("openFDA answered {}, retrying attempt {} in {} ms",
+                        e.getStatusCode().value(), attempt + 1, delay.toMillis());
+                sleep(delay);
+            }
+        }
+    }
+
+    private RuntimeException exhausted(boolean throttledResponse, Duration retryAfter,
+                                       RestClientResponseException cause) {
+        log.error("openFDA request failed with {}: {}", cause.getStatusCode().value(),
+                cause.getMessage());
+        if (throttledResponse) {
+            throttled.increment();
+            return new FdaApiThrottledException(THROTTLED_ERROR,
+                    retryAfter != null ? retryAfter : properties.maxBackoff());
+        }
+
+        serverErrors.increment();
+        return new FdaApiUnavailableException(UNAVAILABLE_ERROR);
+    }
+
+    private Duration backoff(int attempt, Duration retryAfter) {
+        long ceiling = Math.min(properties.maxBackoff().toMillis(),
+                properties.initialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        Duration jittered = Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+
+        return retryAfter != null && retryAfter.compareTo(jittered) > 0 ? retryAfter : jittered;
+    }
+
+    private void sleep(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FdaApiTimeoutException(INTERRUPTED_ERROR);
+        }
+    }
+
+    static Duration retryAfter(HttpHeaders headers) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                Instant retryAt = ZonedDateTime.parse(value.trim(),
+                        DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration untilRetry = Duration.between(Instant.now(), retryAt);
+                return untilRetry.isNegative() ? Duration.ZERO : untilRetry;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.medrecordsapi.search;
+
+import com.example.medrecordsapi.config.FdaSearchIndexProperties;
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import com.example.medrecordsapi.repository.DrugSearchDocumentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over openFDA drugsfda results, keyed by application number. Every
+ * token of the manufacturer and brand name query has to match a term of the respective openfda
+ * field exactly, as a prefix or within the configured edit distance. Results are ordered by the
+ * summed token scores and returned in the same shape as the openFDA response. Only the terms
+ * are held in memory; the results are stored in drug_search_documents and the requested page
+ * is loaded by application number after ranking. Searches are only answered once a complete
+ * bulk ingest has filled the index, or the terms of a completed one were restored from the
+ * stored documents; until then callers fall back to openFDA.
+ */
+@Component
+@Slf4j
+public class DrugSearchIndex {
+
+    private static final String META_FIELD = "meta";
+    private static final String RESULTS_FIELD = "results";
+    private static final String SKIP_FIELD = "skip";
+    private static final String LIMIT_FIELD = "limit";
+    private static final String TOTAL_FIELD = "total";
+    private static final String APPLICATION_NUMBER_FIELD = "application_number";
+    private static final String OPENFDA_FIELD = "openfda";
+    private static final String MANUFACTURER_NAME_FIELD = "manufacturer_name";
+    private static final String BRAND_NAME_FIELD = "brand_name";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double EXACT_SCORE = 3.0;
+    private static final double PREFIX_SCORE = 1.0;
+    private static final double FUZZY_SCORE = 1.0;
+    private static final int FUZZY_PREFIX_LENGTH = 2;
+    private static final int RESTORE_BATCH_SIZE = 1000;
+    private static final String METRIC_NAME = "fda.search.index";
+    private static final String RESULT_TAG = "result";
+
+    private final FdaSearchIndexProperties properties;
+    private final DrugSearchDocumentRepository documentRepository;
+    private final ObjectMapper objectMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<IndexedDrug> documents = new ArrayList<>();
+    private final TermIndex manufacturerTerms = new TermIndex();
+    private final TermIndex brandTerms = new TermIndex();
+    private final Counter hits;
+    private final Counter misses;
+    private volatile boolean loaded;
+
+    public DrugSearchIndex(FdaSearchIndexProperties properties,
+                           DrugSearchDocumentRepository documentRepository,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.documentRepository = documentRepository;
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "hit");
+        this.misses = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "miss");
+        meterRegistry.gauge(METRIC_NAME + ".documents", this, DrugSearchIndex::size);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public boolean isLoaded() {
+        return properties.enabled() && loaded;
+    }
+
+    public boolean isLocalOnly() {
+        return isLoaded() && !properties.fallbackEnabled();
+    }
+
+    /**
+     * Marks the index as authoritative. Only a bulk ingest that read the whole dataset may call
+     * this, a partial load would answer searches with missing results and a wrong total.
+     */
+    public void markLoaded() {
+        if (properties.enabled()) {
+            loaded = true;
+            log.info("Search index loaded with {} documents", size());
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the stored form of an openFDA result, or empty if it has no application number.
+     */
+    public Optional<DrugSearchDocument> toDocument(JsonNode result) {
+        String applicationNumber = result.path(APPLICATION_NUMBER_FIELD).asText();
+        if (applicationNumber.isEmpty()) {
+            return Optional.empty();
+        }
+
+        JsonNode openFda = result.path(OPENFDA_FIELD);
+        return Optional.of(new DrugSearchDocument(applicationNumber,
+                values(openFda.path(MANUFACTURER_NAME_FIELD)),
+                values(openFda.path(BRAND_NAME_FIELD)), result.toString()));
+    }
+
+    /**
+     * Stores the documents with their results, then adds their terms to the index. A document
+     * that is already indexed has its previous terms replaced.
+     */
+    public void indexAll(List<DrugSearchDocument> searchDocuments) {
+        documentRepository.replaceAll(searchDocuments);
+
+        lock.writeLock().lock();
+        try {
+            searchDocuments.forEach(this::addTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the terms of every stored document, e.g. after a restart. Whether they cover the
+     * whole dataset is up to the caller, see {@link #markLoaded()}.
+     *
+     * @return the number of indexed documents
+     */
+    public int restore() {
+        try (Stream<DrugSearchDocument> stored =
+                     documentRepository.streamNames(RESTORE_BATCH_SIZE)) {
+            stored.forEach(searchDocument -> {
+                lock.writeLock().lock();
+                try {
+                    addTerms(searchDocument);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        }
+
+        int restored = size();
+        log.info("Search index restored with {} documents", restored);
+        return restored;
+    }
+
+    // Called with the write lock held
+    private void addTerms(DrugSearchDocument searchDocument) {
+        String applicationNumber = searchDocument.getApplicationNumber();
+        IndexedDrug drug = new IndexedDrug(applicationNumber,
+                tokenize(searchDocument.getManufacturerNames()),
+                tokenize(searchDocument.getBrandNames()));
+
+        Integer docId = docIds.get(applicationNumber);
+        if (docId == null) {
+            docId = documents.size();
+            documents.add(drug);
+            docIds.put(applicationNumber, docId);
+        } else {
+            IndexedDrug previous = documents.set(docId, drug);
+            manufacturerTerms.remove(previous.manufacturerTokens(), docId);
+            brandTerms.remove(previous.brandTokens(), docId);
+        }
+        manufacturerTerms.add(drug.manufacturerTokens(), docId);
+        brandTerms.add(drug.brandTokens(), docId);
+    }
+
+    public Optional<JsonNode> search(String manufacturerName, String brandName,
+                                     int page, int size) {
+        if (!isLoaded()) {
+            return Optional.empty();
+        }
+
+        List<ScoredDrug> ranked;
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = match(manufacturerTerms, tokenize(manufacturerName));
+            if (brandName != null && !brandName.isEmpty()) {
+                scores = intersect(scores, match(brandTerms, tokenize(brandName)));
+            }
+            ranked = scores.entrySet().stream()
+                    .map(entry -> new ScoredDrug(documents.get(entry.getKey()), entry.getValue()))
+                    .sorted(Comparator.comparingDouble(ScoredDrug::score).reversed()
+                            .thenComparing(scored -> scored.drug().applicationNumber()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (ranked.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(toResponse(ranked, page, size));
+    }
+
+    private Map<Integer, Double> match(TermIndex terms, Set<String> queryTokens) {
+        Map<Integer, Double> scores = null;
+        for (String token : queryTokens) {
+            Map<Integer, Double> tokenScores = matchToken(terms, token);
+            scores = scores == null ? tokenScores : intersect(scores, tokenScores);
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        return scores == null ? Map.of() : scores;
+    }
+
+    private Map<Integer, Double> matchToken(TermIndex terms, String token) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Set<Integer>> entry : terms.startingWith(token).entrySet()) {
+            // Shorter completions of the prefix rank higher
+            double score = entry.getKey().length() == token.length()
+                    ? EXACT_SCORE
+                    : PREFIX_SCORE + (double) token.length() / entry.getKey().length();
+            addScores(scores, entry.getValue(), score);
+        }
+
+        int maxEdits = properties.maxEdits();
+        if (maxEdits > 0 && token.length() >= properties.fuzzyMinTermLength()) {
+            // Like most spell checkers, typos in the first characters are not corrected. Only
+            // terms sharing that prefix and with a length within the edit distance are compared
+            String prefix = token.substring(0, Math.min(FUZZY_PREFIX_LENGTH, token.length()));
+            for (int length = token.length() - maxEdits; length <= token.length() + maxEdits;
+                    length++) {
+                for (String term : terms.startingWith(prefix, length)) {
+                    if (!term.startsWith(token) && isWithinEditDistance(token, term, maxEdits)) {
+                        addScores(scores, terms.postings(term), FUZZY_SCORE);
+                    }
+                }
+            }
+        }
+
+        return scores;
+    }
+
+    private void addScores(Map<Integer, Double> scores, Set<Integer> docIds, double score) {
+        for (Integer docId : docIds) {
+            scores.merge(docId, score, Math::max);
+        }
+    }
+
+    private Map<Integer, Double> intersect(Map<Integer, Double> left,
+                                           Map<Integer, Double> right) {
+        Map<Integer, Double> intersection = new HashMap<>();
+        left.forEach((docId, score) -> {
+            Double other = right.get(docId);
+            if (other != null) {
+                intersection.put(docId, score + other);
+            }
+        });
+
+        return intersection;
+    }
+
+    private boolean isWithinEditDistance(String source, String target, int maxEdits) {
+        if (Math.abs(source.length() - target.length()) > maxEdits) {
+            return false;
+        }
+
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int substitution = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1),
+                        previous[j - 1] + substitution);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[target.length()] <= maxEdits;
+    }
+
+    private JsonNode toResponse(List<ScoredDrug> ranked, int page, int size) {
+        int skip = (page - 1) * size;
+        List<String> pageNumbers = ranked.stream()
+                .skip(skip)
+                .limit(size)
+                .map(scored -> scored.drug().applicationNumber())
+                .toList();
+        Map<String, String> storedResults = new HashMap<>();
+        documentRepository.findAllById(pageNumbers).forEach(searchDocument -> storedResults.put(
+                searchDocument.getApplicationNumber(), searchDocument.getResult()));
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.putObject(META_FIELD).putObject(RESULTS_FIELD)
+                .put(SKIP_FIELD, skip)
+                .put(LIMIT_FIELD, size)
+                .put(TOTAL_FIELD, ranked.size());
+        ArrayNode results = response.putArray(RESULTS_FIELD);
+        for (String applicationNumber : pageNumbers) {
+            String storedResult = storedResults.get(applicationNumber);
+            if (storedResult != null) {
+                results.add(readResult(storedResult));
+            }
+        }
+
+        return response;
+    }
+
+    private JsonNode readResult(String storedResult) {
+        try {
+            return objectMapper.readTree(storedResult);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> values(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(value -> values.add(value.asText()));
+
+        return values;
+    }
+
+    private Set<String> tokenize(List<String> values) {
+        Set<String> tokens = new HashSet<>();
+        if (values != null) {
+            values.forEach(value -> tokens.addAll(tokenize(value)));
+        }
+
+        return tokens;
+    }
+
+    private Set<String> tokenize(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    private record IndexedDrug(String applicationNumber, Set<String> manufacturerTokens,
+                               Set<String> brandTokens) {
+    }
+
+    private record ScoredDrug(IndexedDrug drug, double score) {
+    }
+
+    /**
+     * Postings of one field. Terms are also grouped by length, so that the fuzzy pass only
+     * visits terms whose length is within the edit distance.
+     */
+    private static final class TermIndex {
+
+        private final NavigableMap<String, Set<Integer>> postings = new TreeMap<>();
+        private final Map<Integer, NavigableSet<String>> termsByLength = new HashMap<>();
+
+        Set<Integer> postings(String term) {
+            return postings.getOrDefault(term, Set.of());
+        }
+
+        NavigableMap<String, Set<Integer>> startingWith(String prefix) {
+            return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        NavigableSet<String> startingWith(String prefix, int length) {
+            NavigableSet<String> terms = termsByLength.get(length);
+            return terms == null
+                    ? Collections.emptyNavigableSet()
+                    : terms.subSet(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        void add(Set<String> tokens, int docId) {
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, term -> {
+                    termsByLength.computeIfAbsent(term.length(), length -> new TreeSet<>())
+                            .add(term);
+                    return new HashSet<>();
+                }).add(docId);
+            }
+        }
+
+        void remove(Set<String> tokens, int docId) {
+            for (String token : tokens) {
+                Set<Integer> docIds = postings.get(token);
+                if (docIds != null && docIds.remove(docId) && docIds.isEmpty()) {
+                    postings.remove(token);
+                    termsByLength.get(token.length()).remove(token);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.medrecordsapi.search;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaSearchSnapshotProperties;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.service.DrugRecordService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ready-made response bodies for the most frequent searches. Every search is counted in a
+ * lock-free buffer that is drained into a Space-Saving sketch on each rebuild; the hot set is
+ * then rendered through the regular search path in the batch lane and kept as serialized JSON
+ * plus its gzip encoding, each with a strong ETag. Hot searches are then answered without
+ * touching openFDA, the response cache or Jackson. A snapshot is at most one rebuild interval
+ * older than what the regular path would return, and counts are halved on every rebuild so
+ * that the hot set follows the traffic.
+ */
+@Component
+@Slf4j
+public class SearchSnapshotCache {
+
+    private static final String THREAD_PREFIX = "search-snapshot-";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int ETAG_HEX_LENGTH = 32;
+    private static final String METRIC_NAME = "fda.search-snapshots.requests";
+    private static final String RESULT_TAG = "result";
+    private static final int PENDING_CAPACITY_FACTOR = 4;
+
+    private final FdaSearchSnapshotProperties properties;
+    private final DrugRecordService drugRecordService;
+    private final ObjectMapper objectMapper;
+    private final SpaceSavingSketch<SearchQuery> sketch;
+    private final ConcurrentMap<SearchQuery, LongAdder> pending = new ConcurrentHashMap<>();
+    private final int pendingCapacity;
+    private final ExecutorService rebuildExecutor;
+    private final Counter hits;
+    private final Counter misses;
+    private volatile Map<SearchQuery, Snapshot> snapshots = Map.of();
+
+    public SearchSnapshotCache(FdaSearchSnapshotProperties properties,
+                               DrugRecordService drugRecordService,
+                               ObjectMapper objectMapper,
+                               ExecutorFactory executorFactory,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.drugRecordService = drugRecordService;
+        this.objectMapper = objectMapper;
+        this.sketch = new SpaceSavingSketch<>(properties.sketchCapacity());
+        this.pendingCapacity = properties.sketchCapacity() * PENDING_CAPACITY_FACTOR;
+        this.rebuildExecutor = executorFactory.newBoundedExecutor(THREAD_PREFIX, 1, 1);
+        this.hits = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "hit");
+        this.misses = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "miss");
+        meterRegistry.gauge("fda.search-snapshots.size", this, cache -> cache.snapshots.size());
+        meterRegistry.gauge("fda.search-snapshots.bytes", this, cache -> cache.snapshots.values()
+                .stream()
+                .mapToLong(snapshot -> snapshot.body().length + snapshot.gzipBody().length)
+                .sum());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Counts the search and returns its snapshot if the search is in the hot set.
+     */
+    public Optional<Snapshot> lookup(SearchQuery query) {
+        if (!properties.enabled()) {
+            return Optional.empty();
+        }
+
+        count(query);
+        Snapshot snapshot = snapshots.get(query);
+        (snapshot != null ? hits : misses).increment();
+
+        return Optional.ofNullable(snapshot);
+    }
+
+    // Rendering may call openFDA, so it never runs on the shared scheduler thread
+    @Scheduled(fixedDelayString = "${fda.search-snapshots.rebuild-interval:1m}")
+    public void scheduleRebuild() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        try {
+            rebuildExecutor.execute(this::rebuild);
+        } catch (RejectedExecutionException e) {
+            log.debug("Previous search snapshot rebuild still running");
+        }
+    }
+
+    // Searches are counted without the sketch lock; a search first seen while the buffer is full
+    // is not counted until the next drain, which only delays a newcomer by one rebuild interval
+    private void count(SearchQuery query) {
+        LongAdder counter = pending.get(query);
+        if (counter == null) {
+            if (pending.size() >= pendingCapacity) {
+                return;
+            }
+            counter = pending.computeIfAbsent(query, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    // An increment racing with the removal of its counter is lost, which the sketch tolerates
+    private void drainPending() {
+        for (SearchQuery query : pending.keySet()) {
+            LongAdder counter = pending.remove(query);
+            if (counter != null) {
+                sketch.offer(query, counter.sum());
+            }
+        }
+    }
+
+    void rebuild() {
+        drainPending();
+        List<SearchQuery> hotSet = sketch.top(properties.hotSetSize(), properties.minimumHits());
+        sketch.decay();
+
+        Map<SearchQuery, Snapshot> current = snapshots;
+        Map<SearchQuery, Snapshot> rebuilt = new HashMap<>();
+        for (SearchQuery query : hotSet) {
+            try {
+                // Background work, so it yields to users and never spends the hedge budget
+                JsonNode result = drugRecordService.searchDrugRecords(query.manufacturerName(),
+                        query.brandName(), query.page(), query.size(), FdaRequestPriority.BATCH);
+                byte[] body = objectMapper.writeValueAsBytes(result);
+                if (body.length > properties.maxBodySize().toBytes()) {
+                    continue;
+                }
+                Snapshot previous = current.get(query);
+                // An unchanged body keeps its snapshot, so it is not compressed again
+                rebuilt.put(query, previous != null && Arrays.equals(previous.body(), body)
+                        ? previous
+                        : Snapshot.of(body));
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.debug("No snapshot for search {}: {}", query, e.getMessage());
+            }
+        }
+
+        snapshots = Map.copyOf(rebuilt);
+        log.info("Rebuilt search snapshots, {} of {} hot searches", rebuilt.size(),
+                hotSet.size());
+    }
+
+    public record SearchQuery(String manufacturerName, String brandName, int page, int size) {
+    }
+
+    public record Snapshot(byte[] body, byte[] gzipBody, String etag, String gzipEtag) {
+
+        static Snapshot of(byte[] body) {
+            String digest = digest(body);
+            return new Snapshot(body, gzip(body), "\"" + digest + "\"",
+                    "\"" + digest + "-gzip\"");
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return compressed.toByteArray();
+        }
+
+        private static String digest(byte[] body) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance(DIGEST_ALGORITHM)
+                        .digest(body)).substring(0, ETAG_HEX_LENGTH);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.medrecordsapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters sketch with a fixed number of counters. A key that is not tracked
+ * replaces the key with the smallest count and inherits that count as its possible
+ * overestimation, so every key seen more often than total / capacity times is tracked. The
+ * counters form an indexed min-heap, which makes each offer O(log capacity).
+ */
+class SpaceSavingSketch<K> {
+
+    private final Object[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<K, Integer> positions;
+    private int size;
+
+    SpaceSavingSketch(int capacity) {
+        this.keys = new Object[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    void offer(K key) {
+        offer(key, 1);
+    }
+
+    /**
+     * Counts {@code count} occurrences of the key at once, as if it had been offered that many
+     * times in a row.
+     */
+    synchronized void offer(K key, long count) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += count;
+            siftDown(position);
+            return;
+        }
+
+        if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+            return;
+        }
+
+        // Replace the least frequent key, which is at the root
+        positions.remove(key(0));
+        keys[0] = key;
+        errors[0] = counts[0];
+        counts[0] += count;
+        positions.put(key, 0);
+        siftDown(0);
+    }
+
+    /**
+     * Returns up to {@code limit} keys whose guaranteed count (count minus overestimation) is at
+     * least {@code minimumCount}, most frequent first.
+     */
+    synchronized List<K> top(int limit, long minimumCount) {
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+
+        List<K> top = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < order.length && top.size() < limit; i++) {
+            if (counts[order[i]] - errors[order[i]] >= minimumCount) {
+                top.add(key(order[i]));
+            }
+        }
+
+        return top;
+    }
+
+    /**
+     * Halves all counts, so that keys which are no longer requested lose their place over time.
+     * The heap order is kept, since halving preserves the order of the counts.
+     */
+    synchronized void decay() {
+        for (int i = 0; i < size; i++) {
+            counts[i] /= 2;
+            errors[i] /= 2;
+        }
+    }
+
+    synchronized long count(K key) {
+        Integer position = positions.get(key);
+        return position == null ? 0 : counts[position];
+    }
+
+    private void siftUp(int index) {
+        int child = index;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (counts[parent] <= counts[child]) {
+                return;
+            }
+            swap(parent, child);
+            child = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        int parent = index;
+        while (true) {
+            int smallest = parent;
+            int left = 2 * parent + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == parent) {
+                return;
+            }
+            swap(parent, smallest);
+            parent = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        Object key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+        long count = counts[first];
+        counts[first] = counts[second];
+        counts[second] = count;
+        long error = errors[first];
+        errors[first] = errors[second];
+        errors[second] = error;
+        positions.put(key(first), first);
+        positions.put(key(second), second);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int index) {
+        return (K) keys[index];
+    }
+}
@@ -16,16 +16,29 @@ public class AuthenticationService {
 
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationList revocationList;
 
     public UserLoginResponseDto authenticate(UserLoginRequestDto request) {
         log.info("Attempting to authenticate user with email: {}", request.email());
 
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.email(), request.password()));
-        String token = jwtUtil.generateToken(authentication.getName());
+        String token = jwtUtil.generateToken(authentication.getName(),
+                authentication.getAuthorities());
 
         log.info("User authenticated successfully, token generated for email: {}",
                 request.email());
         return new UserLoginResponseDto(token);
     }
+
+    public void logout(Authentication authentication) {
+        if (authentication.getDetails() instanceof VerifiedToken verifiedToken
+                && verifiedToken.tokenId() != null) {
+            revocationList.revoke(verifiedToken.tokenId(), verifiedToken.expiresAt());
+            log.info("User logged out, token revoked for email: {}", authentication.getName());
+        } else {
+            log.info("Logout without a revocable token for email: {}",
+                    authentication.getName());
+        }
+    }
 }
@@ -0,0 +1,88 @@
+package com.example.medrecordsapi.security;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.PasswordEncoderProperties;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool, so a burst of logins or
+ * registrations cannot keep every request thread busy on CPU-bound work. The caller waits
+ * for its task; once the pool and its queue are full, further calls fail fast with a
+ * {@link ServiceOverloadedException} (503) instead of queueing behind the burst. The pool uses
+ * platform threads in both threading modes, so hashing never occupies the carrier threads
+ * that virtual request threads run on.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String THREAD_PREFIX = "password-encoder-";
+    private static final String OVERLOADED_ERROR =
+            "Too many pending password checks, try again later";
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+
+    public BoundedPasswordEncoder(PasswordEncoderProperties properties,
+                                  ExecutorFactory executorFactory) {
+        this(new BCryptPasswordEncoder(properties.strength()),
+                executorFactory.newPlatformExecutor(THREAD_PREFIX, properties.threads(),
+                        properties.queueCapacity()));
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password encoder saturated, rejecting request");
+            throw new ServiceOverloadedException(OVERLOADED_ERROR);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -8,10 +8,8 @@ import java.io.IOException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,7 +24,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final int TOKEN_BEGIN_INDEX = 7;
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final JwtPrincipalResolver principalResolver;
+    private final TokenRevocationList revocationList;
 
     @Override
     protected void doFilterInternal(
@@ -38,17 +37,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (token != null) {
             log.info("Received token: {}", token);
 
-            if (jwtUtil.isValidToken(token)) {
-                String username = jwtUtil.getUsername(token);
-                log.info("Valid token for user: {}", username);
+            VerifiedToken verifiedToken = jwtUtil.verify(token);
+            if (revocationList.isRevoked(verifiedToken.tokenId())) {
+                log.warn("Revoked token received for user: {}", verifiedToken.username());
+            } else {
+                log.info("Valid token for user: {}", verifiedToken.username());
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                Authentication authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
+                UserDetails userDetails = principalResolver.resolve(verifiedToken.username(),
+                        verifiedToken.roles());
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities()
+                        );
+                // Kept for logout, which revokes the token the request was made with
+                authentication.setDetails(verifiedToken);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            } else {
-                log.warn("Invalid token received.");
             }
         } else {
             log.warn("No token found in request.");
@@ -0,0 +1,77 @@
+package com.example.medrecordsapi.security;
+
+import com.example.medrecordsapi.config.JwtPrincipalProperties;
+import com.example.medrecordsapi.config.JwtPrincipalProperties.PrincipalSource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the principal of a validated token. Depending on {@code jwt.principal.source} the
+ * user is loaded on every request, loaded once per cache TTL, or rebuilt from the roles claim
+ * without any database access. Tokens issued without a roles claim fall back to the cache.
+ * The resolved principal carries only the username and authorities, never the password hash.
+ */
+@Component
+@Slf4j
+public class JwtPrincipalResolver {
+
+    private static final String CACHE_NAME = "jwt.principals";
+    private static final String NO_PASSWORD = "";
+
+    private final JwtPrincipalProperties properties;
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, UserDetails> principals;
+
+    public JwtPrincipalResolver(JwtPrincipalProperties properties,
+                                UserDetailsService userDetailsService,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(properties.cacheMaximumSize())
+                .expireAfterWrite(properties.cacheTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+    }
+
+    public UserDetails resolve(String username, List<String> roles) {
+        if (properties.source() == PrincipalSource.CLAIMS && roles != null) {
+            return new User(username, NO_PASSWORD, AuthorityUtils.createAuthorityList(roles));
+        }
+        if (properties.source() == PrincipalSource.DATABASE) {
+            return load(username);
+        }
+
+        return principals.get(cacheKey(username), key -> load(username));
+    }
+
+    public void evict(String username) {
+        principals.invalidate(cacheKey(username));
+    }
+
+    private UserDetails load(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        log.debug("Loaded principal for user: {}", username);
+
+        return new User(userDetails.getUsername(), NO_PASSWORD, userDetails.isEnabled(),
+                userDetails.isAccountNonExpired(), userDetails.isCredentialsNonExpired(),
+                userDetails.isAccountNonLocked(), userDetails.getAuthorities());
+    }
+
+    private String cacheKey(String username) {
+        // Users are looked up case-insensitively, so the cache must be too
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,32 +1,80 @@
 package com.example.medrecordsapi.security;
 
+import com.example.medrecordsapi.config.JwtVerificationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+/**
+ * Issues and verifies tokens. Verification goes through one shared parser and reads the
+ * subject, roles and expiry from a single signature check. Verified tokens are remembered by
+ * their SHA-256 digest until they expire, so a client reusing its token skips the parse.
+ * Tokens that fail verification are never cached.
+ */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.expiration-minutes}")
-    private long expirationMinutes;
-    private final Key secret;
+    private static final String ROLES_CLAIM = "roles";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String CACHE_NAME = "jwt.verified-tokens";
 
-    public JwtUtil(@Value("${jwt.secret}") String secretString) {
-        secret = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+    private final long expirationMinutes;
+    private final SecretKey secret;
+    // Parsers are immutable and thread-safe, building one per call is pure overhead
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String secretString,
+                   @Value("${jwt.expiration-minutes}") long expirationMinutes,
+                   JwtVerificationProperties properties,
+                   MeterRegistry meterRegistry) {
+        this.expirationMinutes = expirationMinutes;
+        this.secret = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(secret)
+                .build();
+        this.verifiedTokens = properties.cacheEnabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(properties.cacheMaximumSize())
+                        .expireAfter(new TokenExpiry())
+                        .recordStats()
+                        .build()
+                : null;
+
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, CACHE_NAME);
+        }
     }
 
-    public String generateToken(String username) {
+    public String generateToken(String username,
+                                Collection<? extends GrantedAuthority> authorities) {
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
+                .claim(ROLES_CLAIM, authorities.stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis()
                         + TimeUnit.MINUTES.toMillis(expirationMinutes)))
@@ -34,26 +82,64 @@ public class JwtUtil {
                 .compact();
     }
 
-    public boolean isValidToken(String token) {
-        Jws<Claims> claimsJws = Jwts.parser()
-                .verifyWith((SecretKey) secret)
-                .build()
-                .parseSignedClaims(token);
+    /**
+     * Verifies the token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or its signature
+     *                                      does not match
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
 
-        return !claimsJws.getPayload().getExpiration().before(new Date());
+        VerifiedToken verified = parse(token);
+        verifiedTokens.put(digest, verified);
+
+        return verified;
     }
 
-    public String getUsername(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+
+        return new VerifiedToken(claims.getId(), claims.getSubject(),
+                roles == null ? null : roles.stream().map(String::valueOf).toList(),
+                claims.getExpiration().toInstant());
     }
 
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parser()
-                .verifyWith((SecretKey) secret)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(DIGEST_ALGORITHM)
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(Duration.between(Instant.now(), value.expiresAt()).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
 
-        return claimsResolver.apply(claims);
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
     }
 }
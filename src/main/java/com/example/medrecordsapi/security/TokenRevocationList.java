@@ -0,0 +1,109 @@
+package com.example.medrecordsapi.security;
+
+import com.example.medrecordsapi.config.JwtRevocationProperties;
+import com.example.medrecordsapi.model.RevokedToken;
+import com.example.medrecordsapi.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revoked token IDs, stored in revoked_tokens until the token would have expired anyway, and
+ * mirrored in a Bloom filter. A token the filter has never seen is not revoked, which needs
+ * no I/O. Only filter hits, and every lookup before the first load, are confirmed against
+ * the collection. Each instance polls for tokens revoked since its last refresh (minus an
+ * overlap for clock skew between instances) and periodically rebuilds the filter so that
+ * expired entries drop out.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private static final String LOOKUPS_METRIC = "jwt.revocation.lookups";
+
+    private final JwtRevocationProperties properties;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Clock clock;
+    private final Counter lookups;
+    private volatile BloomFilter filter;
+    private volatile Instant refreshedSince;
+    private volatile Instant rebuiltAt;
+
+    @Autowired
+    public TokenRevocationList(JwtRevocationProperties properties,
+                               RevokedTokenRepository revokedTokenRepository,
+                               MeterRegistry meterRegistry) {
+        this(properties, revokedTokenRepository, meterRegistry, Clock.systemUTC());
+    }
+
+    TokenRevocationList(JwtRevocationProperties properties,
+                        RevokedTokenRepository revokedTokenRepository,
+                        MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.clock = clock;
+        this.lookups = meterRegistry.counter(LOOKUPS_METRIC);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            // Issued before tokens carried an ID, these cannot be revoked
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(tokenId)) {
+            return false;
+        }
+
+        lookups.increment();
+        return revokedTokenRepository.existsById(tokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, clock.instant(), expiresAt));
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(tokenId);
+        }
+        log.info("Revoked token: {}", tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:10s}")
+    public void refresh() {
+        Instant now = clock.instant();
+        try {
+            if (filter == null || !now.isBefore(rebuiltAt.plus(properties.rebuildInterval()))) {
+                rebuild(now);
+            } else {
+                List<RevokedToken> revoked =
+                        revokedTokenRepository.findByRevokedAtGreaterThanEqual(refreshedSince);
+                revoked.forEach(token -> filter.put(token.getTokenId()));
+                refreshedSince = now.minus(properties.refreshOverlap());
+                log.debug("Added {} revoked tokens to the filter", revoked.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild(Instant now) {
+        List<RevokedToken> revoked = revokedTokenRepository.findByExpiresAtAfter(now);
+        BloomFilter rebuilt = new BloomFilter(
+                Math.max(properties.expectedRevocations(), revoked.size() * 2),
+                properties.falsePositiveRate());
+        revoked.forEach(token -> rebuilt.put(token.getTokenId()));
+
+        filter = rebuilt;
+        rebuiltAt = now;
+        // Revocations stored while the filter was rebuilt are picked up by the next refresh
+        refreshedSince = now.minus(properties.refreshOverlap());
+        log.info("Rebuilt revoked token filter with {} tokens", revoked.size());
+    }
+}
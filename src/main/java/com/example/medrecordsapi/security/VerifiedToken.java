@@ -0,0 +1,12 @@
+package com.example.medrecordsapi.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature and expiry were checked. Token ID and roles are null for
+ * tokens issued without them.
+ */
+public record VerifiedToken(String tokenId, String username, List<String> roles,
+                            Instant expiresAt) {
+}
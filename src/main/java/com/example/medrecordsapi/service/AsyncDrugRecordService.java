@@ -0,0 +1,13 @@
+package com.example.medrecordsapi.service;
+
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncDrugRecordService {
+
+    CompletableFuture<JsonNode> searchDrugRecords(String manufacturerName, String brandName,
+                                                  int page, int size);
+
+    CompletableFuture<DrugRecordResponseDto> saveDrugRecord(String applicationNumber);
+}
@@ -0,0 +1,9 @@
+package com.example.medrecordsapi.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface DrugRecordExportService {
+
+    long exportDrugRecords(OutputStream outputStream) throws IOException;
+}
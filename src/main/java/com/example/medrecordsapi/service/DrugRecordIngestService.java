@@ -0,0 +1,10 @@
+package com.example.medrecordsapi.service;
+
+import com.example.medrecordsapi.dto.ingest.IngestStatusDto;
+
+public interface DrugRecordIngestService {
+
+    IngestStatusDto startIngest();
+
+    IngestStatusDto getStatus();
+}
@@ -0,0 +1,10 @@
+package com.example.medrecordsapi.service;
+
+import com.example.medrecordsapi.dto.refresh.RefreshStatusDto;
+
+public interface DrugRecordRefreshService {
+
+    RefreshStatusDto startRefresh();
+
+    RefreshStatusDto getStatus();
+}
@@ -1,8 +1,13 @@
 package com.example.medrecordsapi.service;
 
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordCursorPageDto;
 import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSaveResultDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSliceDto;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.OutputStream;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
 
@@ -11,9 +16,29 @@ public interface DrugRecordService {
     JsonNode searchDrugRecords(String manufacturerName, String brandName, int page, int size)
             throws JsonProcessingException;
 
+    /**
+     * Searches with the given openFDA priority. Only interactive searches are hedged.
+     */
+    JsonNode searchDrugRecords(String manufacturerName, String brandName, int page, int size,
+                               FdaRequestPriority priority) throws JsonProcessingException;
+
+    void streamDrugRecords(String manufacturerName, String brandName, int page, int size,
+                           List<String> fields, OutputStream outputStream);
+
     DrugRecordResponseDto saveDrugRecord(String applicationNumber) throws JsonProcessingException;
 
-    List<DrugRecordResponseDto> getAllDrugRecords(Pageable pageable);
+    List<DrugRecordSaveResultDto> saveDrugRecords(List<String> applicationNumbers);
+
+    List<DrugRecordResponseDto> getAllDrugRecords(Pageable pageable, List<String> fields);
+
+    DrugRecordCursorPageDto<DrugRecordResponseDto> getDrugRecordsAfter(String cursor, int size,
+                                                                       List<String> fields);
 
     DrugRecordResponseDto findDrugRecordByApplicationNumber(String applicationNumber);
+
+    DrugRecordSliceDto findDrugRecordsByManufacturerPrefix(String prefix, int page, int size);
+
+    DrugRecordSliceDto findDrugRecordsBySubstanceName(String substanceName, int page, int size);
+
+    DrugRecordSliceDto findDrugRecordsByProductNumber(String productNumber, int page, int size);
 }
@@ -1,6 +1,27 @@
 package com.example.medrecordsapi.service;
 
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import java.io.IOException;
+import java.io.InputStream;
+
 public interface FdaApiService {
 
-    String fetchDrugData(String queryParam, String queryValue, int page, int size);
+    String fetchDrugData(String queryParam, String queryValue, int page, int size,
+                         FdaRequestPriority priority);
+
+    /**
+     * Like {@link #fetchDrugData}, but always asks openFDA. The response cache and request
+     * coalescing are bypassed, and the response is not cached.
+     */
+    String fetchFreshDrugData(String queryParam, String queryValue, int page, int size,
+                              FdaRequestPriority priority);
+
+    void streamDrugData(String queryParam, String queryValue, int page, int size,
+                        BodyHandler bodyHandler);
+
+    @FunctionalInterface
+    interface BodyHandler {
+
+        void handle(InputStream body) throws IOException;
+    }
 }
@@ -0,0 +1,82 @@
+package com.example.medrecordsapi.service.impl;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaAsyncProperties;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import com.example.medrecordsapi.service.AsyncDrugRecordService;
+import com.example.medrecordsapi.service.DrugRecordService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@Slf4j
+public class AsyncDrugRecordServiceImpl implements AsyncDrugRecordService {
+
+    private static final String THREAD_PREFIX = "fda-async-";
+    private static final String OVERLOADED_ERROR = "Too many pending FDA lookups, try again later";
+
+    private final DrugRecordService drugRecordService;
+    private final ExecutorService fdaExecutor;
+
+    public AsyncDrugRecordServiceImpl(DrugRecordService drugRecordService,
+                                      FdaAsyncProperties properties,
+                                      ExecutorFactory executorFactory) {
+        this.drugRecordService = drugRecordService;
+        this.fdaExecutor = executorFactory.newBoundedExecutor(
+                THREAD_PREFIX, properties.threads(), properties.queueCapacity());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fdaExecutor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> searchDrugRecords(String manufacturerName,
+                                                         String brandName,
+                                                         int page, int size) {
+        log.info("Submitting async search for manufacturer: {}, brand: {}, page: {}, size: {}",
+                manufacturerName, brandName, page, size);
+
+        return submit(() -> {
+            try {
+                return drugRecordService.searchDrugRecords(manufacturerName, brandName,
+                        page, size);
+            } catch (JsonProcessingException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<DrugRecordResponseDto> saveDrugRecord(String applicationNumber) {
+        log.info("Submitting async save for application number: {}", applicationNumber);
+
+        return submit(() -> {
+            try {
+                return drugRecordService.saveDrugRecord(applicationNumber);
+            } catch (JsonProcessingException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, fdaExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Async FDA executor saturated, rejecting request");
+            return CompletableFuture.failedFuture(
+                    new ServiceOverloadedException(OVERLOADED_ERROR));
+        }
+    }
+}
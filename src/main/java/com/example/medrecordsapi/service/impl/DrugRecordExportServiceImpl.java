@@ -0,0 +1,61 @@
+package com.example.medrecordsapi.service.impl;
+
+import com.example.medrecordsapi.config.FdaExportProperties;
+import com.example.medrecordsapi.mapper.DrugRecordMapper;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.service.DrugRecordExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes the whole drug_records collection as newline delimited JSON. Records are read from a
+ * Mongo cursor and serialized one at a time, so memory use does not depend on collection size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DrugRecordExportServiceImpl implements DrugRecordExportService {
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    private final DrugRecordRepository drugRecordRepository;
+    private final DrugRecordMapper drugRecordMapper;
+    private final ObjectMapper objectMapper;
+    private final FdaExportProperties properties;
+
+    @Override
+    public long exportDrugRecords(OutputStream outputStream) throws IOException {
+        log.info("Exporting drug records with cursor batch size: {}",
+                properties.cursorBatchSize());
+
+        long exported = 0;
+        try (Stream<DrugRecord> drugRecords =
+                     drugRecordRepository.streamAll(properties.cursorBatchSize());
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // The servlet container owns the response stream; lines are separated explicitly
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<DrugRecord> iterator = drugRecords.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(drugRecordMapper.toDto(iterator.next()));
+                generator.writeRaw(LINE_SEPARATOR);
+                exported++;
+                if (exported % properties.flushInterval() == 0) {
+                    generator.flush();
+                }
+            }
+        }
+
+        log.info("Exported {} drug records", exported);
+
+        return exported;
+    }
+}
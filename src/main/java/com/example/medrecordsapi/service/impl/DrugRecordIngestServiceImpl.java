@@ -0,0 +1,364 @@
+package com.example.medrecordsapi.service.impl;
+
+import com.example.medrecordsapi.cache.DrugRecordCache;
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaIngestProperties;
+import com.example.medrecordsapi.dto.ingest.IngestStatusDto;
+import com.example.medrecordsapi.dto.ingest.IngestStatusDto.IngestState;
+import com.example.medrecordsapi.exception.custom.IngestInProgressException;
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import com.example.medrecordsapi.model.IngestCheckpoint;
+import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.repository.IngestCheckpointRepository;
+import com.example.medrecordsapi.search.DrugSearchIndex;
+import com.example.medrecordsapi.service.DrugRecordIngestService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads the openFDA drugsfda bulk download (a zip with one JSON document) into drug_records.
+ * Results are stream parsed and written in unordered bulk upserts. Batches are written in
+ * waves of {@code parallelism}; the checkpoint only advances once a whole wave is written, so
+ * a restarted ingest resumes from the last committed offset and at most rewrites one wave.
+ */
+@Service
+@Slf4j
+public class DrugRecordIngestServiceImpl implements DrugRecordIngestService {
+
+    private static final String COORDINATOR_THREAD_PREFIX = "fda-ingest-";
+    private static final String WRITER_THREAD_PREFIX = "fda-ingest-writer-";
+    private static final String JSON_EXTENSION = ".json";
+    private static final String META_FIELD = "meta";
+    private static final String RESULTS_FIELD = "results";
+    private static final String TOTAL_FIELD = "total";
+    private static final String INGEST_RUNNING_ERROR = "An ingest is already running";
+
+    private final FdaIngestProperties properties;
+    private final DrugRecordRepository drugRecordRepository;
+    private final IngestCheckpointRepository checkpointRepository;
+    private final FdaDrugRecordExtractor drugRecordExtractor;
+    private final DrugSearchIndex drugSearchIndex;
+    private final DrugRecordCache drugRecordCache;
+    private final JsonFactory jsonFactory;
+    private final ExecutorService coordinator;
+    private final ExecutorService writers;
+    private final AtomicReference<IngestRun> currentRun = new AtomicReference<>();
+    private volatile boolean searchIndexRestored;
+
+    public DrugRecordIngestServiceImpl(FdaIngestProperties properties,
+                                       DrugRecordRepository drugRecordRepository,
+                                       IngestCheckpointRepository checkpointRepository,
+                                       FdaDrugRecordExtractor drugRecordExtractor,
+                                       DrugSearchIndex drugSearchIndex,
+                                       DrugRecordCache drugRecordCache,
+                                       ObjectMapper objectMapper,
+                                       ExecutorFactory executorFactory) {
+        this.properties = properties;
+        this.drugRecordRepository = drugRecordRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.drugRecordExtractor = drugRecordExtractor;
+        this.drugSearchIndex = drugSearchIndex;
+        this.drugRecordCache = drugRecordCache;
+        this.jsonFactory = objectMapper.getFactory();
+        this.coordinator = executorFactory.newBoundedExecutor(COORDINATOR_THREAD_PREFIX, 1, 1);
+        this.writers = executorFactory.newBoundedExecutor(WRITER_THREAD_PREFIX,
+                properties.parallelism(), properties.parallelism());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Restores the search index from the stored search documents. It answers searches again
+     * right away if the last ingest of the configured file completed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreSearchIndex() {
+        if (!drugSearchIndex.isEnabled()) {
+            return;
+        }
+
+        // On the coordinator, so an ingest started meanwhile runs once the index is restored
+        coordinator.execute(() -> {
+            try {
+                drugSearchIndex.restore();
+                searchIndexRestored = true;
+                String source = Path.of(properties.file()).getFileName().toString();
+                if (checkpointRepository.findById(source)
+                        .map(IngestCheckpoint::isCompleted)
+                        .orElse(false)) {
+                    drugSearchIndex.markLoaded();
+                }
+            } catch (RuntimeException e) {
+                log.error("Restoring the search index failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public IngestStatusDto startIngest() {
+        Path source = Path.of(properties.file());
+        IngestRun run = new IngestRun(source.getFileName().toString());
+
+        IngestRun previous = currentRun.get();
+        if ((previous != null && previous.state == IngestState.RUNNING)
+                || !currentRun.compareAndSet(previous, run)) {
+            throw new IngestInProgressException(INGEST_RUNNING_ERROR);
+        }
+
+        log.info("Starting drugsfda ingest from: {}", source);
+        IngestStatusDto started = run.toDto();
+        coordinator.execute(() -> execute(run, source));
+
+        return started;
+    }
+
+    @Override
+    public IngestStatusDto getStatus() {
+        IngestRun run = currentRun.get();
+        if (run == null) {
+            return new IngestStatusDto(IngestState.IDLE, properties.file(), null, 0, 0, 0, 0,
+                    null, null, null);
+        }
+
+        return run.toDto();
+    }
+
+    private void execute(IngestRun run, Path source) {
+        try {
+            Optional<IngestCheckpoint> unfinished = checkpointRepository.findById(run.source)
+                    .filter(existing -> !existing.isCompleted());
+            String fingerprint = fingerprint(source);
+            if (unfinished.isPresent()
+                    && !fingerprint.equals(unfinished.get().getFingerprint())) {
+                log.info("Ingest file {} changed since its checkpoint, starting over",
+                        run.source);
+            }
+            IngestCheckpoint checkpoint = unfinished
+                    .filter(existing -> fingerprint.equals(existing.getFingerprint()))
+                    .orElseGet(() -> new IngestCheckpoint(run.source, fingerprint, 0, false,
+                            Instant.now()));
+            run.resumedFromOffset = checkpoint.getCommittedOffset();
+            run.committedOffset.set(checkpoint.getCommittedOffset());
+
+            try (ZipInputStream zip = new ZipInputStream(
+                    new BufferedInputStream(Files.newInputStream(source)))) {
+                ZipEntry entry;
+                long offset = 0;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (!entry.isDirectory() && entry.getName().endsWith(JSON_EXTENSION)) {
+                        offset = ingestEntry(zip, run, checkpoint, offset);
+                    }
+                }
+            }
+
+            checkpoint.setCompleted(true);
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+            if (run.resumedFromOffset == 0 || searchIndexRestored) {
+                // A resumed run skipped the committed records, which only a restore indexed
+                drugSearchIndex.markLoaded();
+            }
+            run.finish(IngestState.COMPLETED, null);
+            log.info("Ingest of {} completed, {} records written at {} records/s", run.source,
+                    run.recordsWritten.get(), run.recordsPerSecond());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish(IngestState.FAILED, "Ingest interrupted");
+        } catch (Exception e) {
+            log.error("Ingest of {} failed at offset {}: {}", run.source,
+                    run.committedOffset.get(), e.getMessage(), e);
+            run.finish(IngestState.FAILED, e.getMessage());
+        }
+    }
+
+    // Size and modification time change whenever a new bulk file is downloaded over the old one
+    private static String fingerprint(Path source) throws IOException {
+        return Files.size(source) + ":" + Files.getLastModifiedTime(source).toMillis();
+    }
+
+    private long ingestEntry(InputStream entryStream, IngestRun run, IngestCheckpoint checkpoint,
+                             long startOffset) throws IOException, InterruptedException {
+        long offset = startOffset;
+        List<DrugRecord> batch = new ArrayList<>(properties.batchSize());
+        List<DrugSearchDocument> batchDocuments = new ArrayList<>(properties.batchSize());
+        List<Future<?>> wave = new ArrayList<>(properties.parallelism());
+
+        try (JsonParser parser = jsonFactory.createParser(entryStream)) {
+            // The zip stream is closed by the caller once all entries are read
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return offset;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (META_FIELD.equals(field) && value == JsonToken.START_OBJECT) {
+                    JsonNode meta = parser.readValueAsTree();
+                    run.addTotal(meta.path(RESULTS_FIELD).path(TOTAL_FIELD).asLong());
+                    continue;
+                }
+                if (!RESULTS_FIELD.equals(field) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    if (offset < checkpoint.getCommittedOffset()) {
+                        parser.skipChildren();
+                        offset++;
+                        continue;
+                    }
+
+                    DrugRecord drugRecord = readRecord(parser, batchDocuments);
+                    offset++;
+                    if (drugRecord.getApplicationNumber() != null) {
+                        batch.add(drugRecord);
+                    }
+
+                    if (batch.size() >= properties.batchSize()) {
+                        wave.add(submitBatch(batch, batchDocuments, run));
+                        batch = new ArrayList<>(properties.batchSize());
+                        batchDocuments = new ArrayList<>(properties.batchSize());
+                    }
+                    if (wave.size() >= properties.parallelism()) {
+                        commitWave(wave, run, checkpoint, offset);
+                    }
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            wave.add(submitBatch(batch, batchDocuments, run));
+        }
+        commitWave(wave, run, checkpoint, offset);
+
+        return offset;
+    }
+
+    private DrugRecord readRecord(JsonParser parser, List<DrugSearchDocument> batchDocuments)
+            throws IOException {
+        if (!drugSearchIndex.isEnabled()) {
+            return drugRecordExtractor.readResult(parser);
+        }
+
+        // The index needs the whole result, so it is materialized only in that case
+        JsonNode result = parser.readValueAsTree();
+        drugSearchIndex.toDocument(result).ifPresent(batchDocuments::add);
+        try (JsonParser resultParser = result.traverse()) {
+            resultParser.nextToken();
+            return drugRecordExtractor.readResult(resultParser);
+        }
+    }
+
+    private Future<?> submitBatch(List<DrugRecord> batch,
+                                  List<DrugSearchDocument> batchDocuments, IngestRun run) {
+        return writers.submit(() -> {
+            try {
+                drugRecordRepository.upsertAll(batch);
+            } finally {
+                // Part of a failed bulk write may have been applied
+                drugRecordCache.invalidateAll(batch.stream()
+                        .map(DrugRecord::getApplicationNumber)
+                        .toList());
+            }
+            // Indexed only once written, so the index never returns a record that is not stored
+            if (!batchDocuments.isEmpty()) {
+                drugSearchIndex.indexAll(batchDocuments);
+            }
+            run.recordsWritten.addAndGet(batch.size());
+        });
+    }
+
+    private void commitWave(List<Future<?>> wave, IngestRun run, IngestCheckpoint checkpoint,
+                            long offset) throws InterruptedException {
+        for (Future<?> write : wave) {
+            try {
+                write.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk write failed: " + e.getCause().getMessage(),
+                        e.getCause());
+            }
+        }
+        wave.clear();
+
+        if (offset > checkpoint.getCommittedOffset()) {
+            checkpoint.setCommittedOffset(offset);
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+            run.committedOffset.set(offset);
+            log.debug("Ingest of {} committed offset {}", run.source, offset);
+        }
+    }
+
+    private static class IngestRun {
+
+        private final String source;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong committedOffset = new AtomicLong();
+        private final AtomicLong recordsWritten = new AtomicLong();
+        private volatile IngestState state = IngestState.RUNNING;
+        private volatile Long total;
+        private volatile long resumedFromOffset;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        IngestRun(String source) {
+            this.source = source;
+        }
+
+        void addTotal(long entryTotal) {
+            total = total == null ? entryTotal : total + entryTotal;
+        }
+
+        void finish(IngestState finalState, String finalError) {
+            finishedAt = Instant.now();
+            error = finalError;
+            state = finalState;
+        }
+
+        double recordsPerSecond() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMillis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+
+            return recordsWritten.get() * 1000.0 / elapsedMillis;
+        }
+
+        IngestStatusDto toDto() {
+            return new IngestStatusDto(state, source, total, resumedFromOffset,
+                    committedOffset.get(), recordsWritten.get(), recordsPerSecond(),
+                    startedAt, finishedAt, error);
+        }
+    }
+}
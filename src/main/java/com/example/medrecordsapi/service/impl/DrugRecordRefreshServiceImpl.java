@@ -0,0 +1,242 @@
+package com.example.medrecordsapi.service.impl;
+
+import com.example.medrecordsapi.cache.DrugRecordCache;
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaRefreshProperties;
+import com.example.medrecordsapi.dto.refresh.RefreshStatusDto;
+import com.example.medrecordsapi.dto.refresh.RefreshStatusDto.RefreshState;
+import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
+import com.example.medrecordsapi.exception.custom.RefreshInProgressException;
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.service.DrugRecordRefreshService;
+import com.example.medrecordsapi.service.FdaApiService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps stored drug records in sync with openFDA. Each run takes the least recently checked
+ * records in chunks, fetches every chunk with one batch lane request that bypasses the response
+ * cache and writes only the records that differ, marking the whole chunk as checked. A run
+ * stops after its request budget, so the job uses a bounded share of the quota and always
+ * yields to interactive requests in the rate limiter. Records missing upstream are kept and
+ * only marked as checked.
+ */
+@Service
+@Slf4j
+public class DrugRecordRefreshServiceImpl implements DrugRecordRefreshService {
+
+    private static final String THREAD_PREFIX = "drug-record-refresh-";
+    private static final String APPLICATION_NUMBER_FIELD = "openfda.application_number:";
+    private static final String OR_OPERATOR = "+OR+";
+    private static final int PAGE_ONE = 1;
+    private static final String REFRESH_RUNNING_ERROR = "A refresh is already running";
+    private static final String METRIC_NAME = "fda.refresh.records";
+    private static final String RESULT_TAG = "result";
+
+    private final FdaRefreshProperties properties;
+    private final DrugRecordRepository drugRecordRepository;
+    private final FdaApiService fdaApiService;
+    private final FdaDrugRecordExtractor drugRecordExtractor;
+    private final DrugRecordCache drugRecordCache;
+    private final ExecutorService executor;
+    private final AtomicReference<RefreshRun> currentRun = new AtomicReference<>();
+    private final Counter unchangedRecords;
+    private final Counter updatedRecords;
+    private final Counter missingRecords;
+
+    public DrugRecordRefreshServiceImpl(FdaRefreshProperties properties,
+                                        DrugRecordRepository drugRecordRepository,
+                                        FdaApiService fdaApiService,
+                                        FdaDrugRecordExtractor drugRecordExtractor,
+                                        DrugRecordCache drugRecordCache,
+                                        ExecutorFactory executorFactory,
+                                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.drugRecordRepository = drugRecordRepository;
+        this.fdaApiService = fdaApiService;
+        this.drugRecordExtractor = drugRecordExtractor;
+        this.drugRecordCache = drugRecordCache;
+        this.executor = executorFactory.newBoundedExecutor(THREAD_PREFIX, 1, 1);
+        this.unchangedRecords = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "unchanged");
+        this.updatedRecords = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "updated");
+        this.missingRecords = meterRegistry.counter(METRIC_NAME, RESULT_TAG, "missing");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Only starts the run, so the shared scheduler thread is never blocked by openFDA
+    @Scheduled(fixedDelayString = "${fda.refresh.interval:15m}",
+            initialDelayString = "${fda.refresh.initial-delay:1m}")
+    public void scheduledRefresh() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        try {
+            startRefresh();
+        } catch (RefreshInProgressException e) {
+            log.info("Skipping scheduled refresh, the previous one is still running");
+        }
+    }
+
+    @Override
+    public RefreshStatusDto startRefresh() {
+        RefreshRun run = new RefreshRun();
+
+        RefreshRun previous = currentRun.get();
+        if ((previous != null && previous.state == RefreshState.RUNNING)
+                || !currentRun.compareAndSet(previous, run)) {
+            throw new RefreshInProgressException(REFRESH_RUNNING_ERROR);
+        }
+
+        log.info("Starting drug record refresh");
+        RefreshStatusDto started = run.toDto();
+        executor.execute(() -> execute(run));
+
+        return started;
+    }
+
+    @Override
+    public RefreshStatusDto getStatus() {
+        RefreshRun run = currentRun.get();
+        if (run == null) {
+            return new RefreshStatusDto(RefreshState.IDLE, 0, 0, 0, 0, 0, null, null, null);
+        }
+
+        return run.toDto();
+    }
+
+    private void execute(RefreshRun run) {
+        try {
+            Instant checkedBefore = Instant.now().minus(properties.recheckAfter());
+            while (run.requests.get() < properties.maxRequestsPerRun()) {
+                List<DrugRecord> stored = drugRecordRepository.findLeastRecentlyChecked(
+                        checkedBefore, properties.chunkSize());
+                if (stored.isEmpty()) {
+                    break;
+                }
+                refreshChunk(stored, run);
+            }
+
+            run.finish(RefreshState.COMPLETED, null);
+            log.info("Refresh completed, {} records checked, {} updated, {} missing upstream",
+                    run.recordsChecked.get(), run.recordsUpdated.get(),
+                    run.recordsMissing.get());
+        } catch (Exception e) {
+            // Throttling or an open circuit ends the run early, the next one picks up from here
+            log.warn("Refresh stopped after {} records: {}", run.recordsChecked.get(),
+                    e.getMessage());
+            run.finish(RefreshState.FAILED, e.getMessage());
+        }
+    }
+
+    private void refreshChunk(List<DrugRecord> stored, RefreshRun run)
+            throws JsonProcessingException {
+        Map<String, DrugRecord> upstream = fetchChunk(stored.stream()
+                .map(DrugRecord::getApplicationNumber)
+                .toList());
+        run.requests.incrementAndGet();
+
+        List<DrugRecord> changed = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        int missing = 0;
+        for (DrugRecord drugRecord : stored) {
+            DrugRecord current = upstream.get(drugRecord.getApplicationNumber());
+            if (current == null) {
+                missing++;
+            }
+            if (current == null || current.equals(drugRecord)) {
+                unchanged.add(drugRecord.getApplicationNumber());
+            } else {
+                changed.add(current);
+            }
+        }
+
+        drugRecordRepository.applyRefresh(changed, unchanged, Instant.now());
+        drugRecordCache.invalidateAll(changed.stream()
+                .map(DrugRecord::getApplicationNumber)
+                .toList());
+
+        run.recordsChecked.addAndGet(stored.size());
+        run.recordsUpdated.addAndGet(changed.size());
+        run.recordsMissing.addAndGet(missing);
+        unchangedRecords.increment(unchanged.size() - missing);
+        updatedRecords.increment(changed.size());
+        missingRecords.increment(missing);
+        log.debug("Refreshed chunk of {} records, {} updated", stored.size(), changed.size());
+    }
+
+    private Map<String, DrugRecord> fetchChunk(List<String> applicationNumbers)
+            throws JsonProcessingException {
+        String searchQuery = applicationNumbers.stream()
+                .map(applicationNumber -> APPLICATION_NUMBER_FIELD + applicationNumber)
+                .collect(Collectors.joining(OR_OPERATOR));
+
+        Map<String, DrugRecord> fetched = new HashMap<>();
+        try {
+            // A cached or stale response would mark outdated records as checked
+            String rawJson = fdaApiService.fetchFreshDrugData("", searchQuery, PAGE_ONE,
+                    applicationNumbers.size(), FdaRequestPriority.BATCH);
+            drugRecordExtractor.extractResults(rawJson)
+                    .forEach(drugRecord ->
+                            fetched.putIfAbsent(drugRecord.getApplicationNumber(), drugRecord));
+        } catch (DrugRecordNotFoundException e) {
+            log.debug("None of {} records found upstream", applicationNumbers.size());
+        }
+
+        return fetched;
+    }
+
+    private static class RefreshRun {
+
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong recordsChecked = new AtomicLong();
+        private final AtomicLong recordsUpdated = new AtomicLong();
+        private final AtomicLong recordsMissing = new AtomicLong();
+        private final AtomicInteger requests = new AtomicInteger();
+        private volatile RefreshState state = RefreshState.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        void finish(RefreshState finalState, String finalError) {
+            finishedAt = Instant.now();
+            error = finalError;
+            state = finalState;
+        }
+
+        double recordsPerSecond() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMillis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+
+            return recordsChecked.get() * 1000.0 / elapsedMillis;
+        }
+
+        RefreshStatusDto toDto() {
+            return new RefreshStatusDto(state, recordsChecked.get(), recordsUpdated.get(),
+                    recordsMissing.get(), requests.get(), recordsPerSecond(), startedAt,
+                    finishedAt, error);
+        }
+    }
+}
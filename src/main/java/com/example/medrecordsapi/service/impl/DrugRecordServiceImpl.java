@@ -1,20 +1,51 @@
 package com.example.medrecordsapi.service.impl;
 
+import com.example.medrecordsapi.cache.DrugRecordCache;
+import com.example.medrecordsapi.config.FdaBatchSaveProperties;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordCursorPageDto;
 import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSaveResultDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSaveResultDto.SaveStatus;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSliceDto;
+import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
 import com.example.medrecordsapi.exception.custom.EntityNotFoundException;
+import com.example.medrecordsapi.exception.custom.InvalidCursorException;
+import com.example.medrecordsapi.exception.custom.InvalidFieldsException;
 import com.example.medrecordsapi.mapper.DrugRecordMapper;
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
+import com.example.medrecordsapi.mapper.FdaResultFieldFilter;
 import com.example.medrecordsapi.model.DrugRecord;
 import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.search.DrugSearchIndex;
 import com.example.medrecordsapi.service.DrugRecordService;
 import com.example.medrecordsapi.service.FdaApiService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -26,78 +57,144 @@ public class DrugRecordServiceImpl implements DrugRecordService {
     private static final String BRAND_NAME_FIELD = "openfda.brand_name:";
     private static final String APPLICATION_NUMBER_FIELD = "openfda.application_number:";
     private static final String RESULTS_NODE_PATH = "results";
-    private static final String OPENFDA_NODE_PATH = "openfda";
-    private static final String PRODUCT_NDC_NODE_PATH = "product_ndc";
-    private static final String MANUFACTURER_NAME_NODE_PATH = "manufacturer_name";
-    private static final String SUBSTANCE_NAME_NODE_PATH = "substance_name";
     private static final String AND_OPERATOR = "+AND+";
+    private static final String OR_OPERATOR = "+OR+";
     private static final int PAGE_SIZE_ONE = 1;
-    private static final int INDEX_ZERO = 0;
     private static final String NO_DRUGS_FOUND_ERROR = "No drug records found";
+    private static final String INVALID_CURSOR_ERROR = "Invalid cursor";
+    private static final String UNKNOWN_FIELDS_ERROR = "Unknown fields %s, allowed fields: %s";
+    // Both orders follow the compound indexes, so slices are read without an in-memory sort
+    private static final Sort MANUFACTURER_ORDER = Sort.by("manufacturerName", "applicationNumber");
+    private static final Sort APPLICATION_NUMBER_ORDER = Sort.by("applicationNumber");
+    private static final List<String> PROJECTABLE_FIELDS = List.of("applicationNumber",
+            "manufacturerName", "substanceName", "productNumbers");
 
     private final DrugRecordRepository drugRecordRepository;
     private final ObjectMapper objectMapper;
     private final DrugRecordMapper drugRecordMapper;
     private final FdaApiService fdaApiService;
+    private final FdaDrugRecordExtractor drugRecordExtractor;
+    private final FdaResultFieldFilter resultFieldFilter;
+    private final DrugSearchIndex drugSearchIndex;
+    private final FdaBatchSaveProperties batchSaveProperties;
+    private final DrugRecordCache drugRecordCache;
 
     @Override
     public JsonNode searchDrugRecords(String manufacturerName, String brandName,
                                       int page, int size) throws JsonProcessingException {
-        log.info("Searching for drug records with manufacturer: {}, brand: {}, page: {}, "
-                + "size: {}", manufacturerName, brandName, page, size);
+        return searchDrugRecords(manufacturerName, brandName, page, size,
+                FdaRequestPriority.INTERACTIVE);
+    }
 
-        StringBuilder searchQuery = new StringBuilder()
-                .append(MANUFACTURER_NAME_FIELD)
-                .append(manufacturerName);
+    @Override
+    public JsonNode searchDrugRecords(String manufacturerName, String brandName, int page,
+                                      int size, FdaRequestPriority priority)
+            throws JsonProcessingException {
+        log.info("Searching for drug records with manufacturer: {}, brand: {}, page: {}, "
+                + "size: {}, priority: {}", manufacturerName, brandName, page, size, priority);
 
-        if (brandName != null && !brandName.isEmpty()) {
-            searchQuery.append(AND_OPERATOR)
-                    .append(BRAND_NAME_FIELD)
-                    .append(brandName);
+        Optional<JsonNode> localResult =
+                drugSearchIndex.search(manufacturerName, brandName, page, size);
+        if (localResult.isPresent()) {
+            log.info("Search served from local index");
+            return localResult.get();
+        }
+        if (drugSearchIndex.isLocalOnly()) {
+            throw new DrugRecordNotFoundException(NO_DRUGS_FOUND_ERROR);
         }
 
         String rawJson = fdaApiService.fetchDrugData(
-                "", searchQuery.toString(), page, size);
+                "", buildSearchQuery(manufacturerName, brandName), page, size, priority);
         JsonNode result = objectMapper.readTree(rawJson);
         log.info("Search result size: {}", result.path(RESULTS_NODE_PATH).size());
 
         return result;
     }
 
+    @Override
+    public void streamDrugRecords(String manufacturerName, String brandName, int page, int size,
+                                  List<String> fields, OutputStream outputStream) {
+        log.info("Streaming drug records with manufacturer: {}, brand: {}, page: {}, size: {}, "
+                + "fields: {}", manufacturerName, brandName, page, size, fields);
+
+        fdaApiService.streamDrugData("", buildSearchQuery(manufacturerName, brandName),
+                page, size, body -> resultFieldFilter.copy(body, outputStream, fields));
+    }
+
     @Override
     public DrugRecordResponseDto saveDrugRecord(String applicationNumber)
             throws JsonProcessingException {
         log.info("Attempting to save drug record with application number: {}", applicationNumber);
 
         String rawJson = fdaApiService.fetchDrugData(APPLICATION_NUMBER_FIELD, applicationNumber,
-                PAGE_SIZE_ONE, PAGE_SIZE_ONE);
+                PAGE_SIZE_ONE, PAGE_SIZE_ONE, FdaRequestPriority.INTERACTIVE);
 
-        JsonNode rootNode = objectMapper.readTree(rawJson);
-        JsonNode result = rootNode.path(RESULTS_NODE_PATH).get(INDEX_ZERO);
-        JsonNode openFda = result.path(OPENFDA_NODE_PATH);
-        String manufacturerName =
-                openFda.path(MANUFACTURER_NAME_NODE_PATH).get(INDEX_ZERO).asText();
-        String substanceName =
-                openFda.path(SUBSTANCE_NAME_NODE_PATH).get(INDEX_ZERO).asText();
+        DrugRecord drugRecord = drugRecordExtractor.extractFirstResult(applicationNumber, rawJson);
+        // Upserted instead of replaced, so the refresh timestamp of a stored record is kept
+        drugRecordRepository.upsertAll(List.of(drugRecord));
+        drugRecordCache.invalidate(drugRecord.getApplicationNumber());
 
-        List<String> productNumbers = new ArrayList<>();
-        openFda.path(PRODUCT_NDC_NODE_PATH).forEach(node -> productNumbers.add(node.asText()));
+        log.info("Drug record saved with application number: {}",
+                drugRecord.getApplicationNumber());
 
-        DrugRecord drugRecord = new DrugRecord(applicationNumber, manufacturerName,
-                substanceName, productNumbers);
-        DrugRecord savedDrugRecord = drugRecordRepository.save(drugRecord);
+        return drugRecordMapper.toDto(drugRecord);
+    }
 
-        log.info("Drug record saved with application number: {}",
-                savedDrugRecord.getApplicationNumber());
+    @Override
+    public List<DrugRecordSaveResultDto> saveDrugRecords(List<String> applicationNumbers) {
+        List<String> distinctNumbers = new ArrayList<>(new LinkedHashSet<>(applicationNumbers));
+        log.info("Attempting to save {} drug records in batch", distinctNumbers.size());
+
+        Map<String, DrugRecordSaveResultDto> results = new HashMap<>();
+        Map<String, DrugRecord> fetched = new LinkedHashMap<>();
+        for (int from = 0; from < distinctNumbers.size(); from += batchSaveProperties.chunkSize()) {
+            List<String> chunk = distinctNumbers.subList(from,
+                    Math.min(from + batchSaveProperties.chunkSize(), distinctNumbers.size()));
+            try {
+                // openFDA may spell a number differently, so results are matched ignoring case
+                Map<String, DrugRecord> byNumber = new HashMap<>();
+                fetchChunk(chunk).forEach(drugRecord -> byNumber.putIfAbsent(
+                        normalizeNumber(drugRecord.getApplicationNumber()), drugRecord));
+                for (String number : chunk) {
+                    DrugRecord drugRecord = byNumber.get(normalizeNumber(number));
+                    if (drugRecord != null) {
+                        fetched.putIfAbsent(number, drugRecord);
+                    }
+                }
+            } catch (DrugRecordNotFoundException e) {
+                log.info("No drug records found for batch chunk of {} numbers", chunk.size());
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.error("Fetching batch chunk of {} numbers failed: {}", chunk.size(),
+                        e.getMessage());
+                chunk.forEach(number -> results.put(number, failed(number, e.getMessage())));
+            }
+        }
+
+        persistFetched(fetched, results);
+
+        List<DrugRecordSaveResultDto> response = distinctNumbers.stream()
+                .map(number -> results.getOrDefault(number, new DrugRecordSaveResultDto(
+                        number, SaveStatus.NOT_FOUND, null, NO_DRUGS_FOUND_ERROR)))
+                .toList();
+        log.info("Batch save finished, {} of {} drug records saved",
+                response.stream().filter(result -> result.status() == SaveStatus.SAVED).count(),
+                distinctNumbers.size());
 
-        return drugRecordMapper.toDto(savedDrugRecord);
+        return response;
     }
 
     @Override
-    public List<DrugRecordResponseDto> getAllDrugRecords(Pageable pageable) {
-        log.info("Fetching all drug records with pagination: {}", pageable);
+    public List<DrugRecordResponseDto> getAllDrugRecords(Pageable pageable, List<String> fields) {
+        log.info("Fetching all drug records with pagination: {}, fields: {}", pageable, fields);
 
-        List<DrugRecordResponseDto> drugRecords = drugRecordRepository.findAll(pageable).stream()
+        List<DrugRecord> storedRecords;
+        if (fields == null || fields.isEmpty()) {
+            storedRecords = drugRecordRepository.findAll(pageable).getContent();
+        } else {
+            storedRecords =
+                    drugRecordRepository.findAllProjected(pageable, validateFields(fields));
+        }
+        List<DrugRecordResponseDto> drugRecords = storedRecords.stream()
                 .map(drugRecordMapper::toDto)
                 .toList();
 
@@ -106,16 +203,186 @@ public class DrugRecordServiceImpl implements DrugRecordService {
         return drugRecords;
     }
 
+    @Override
+    public DrugRecordCursorPageDto<DrugRecordResponseDto> getDrugRecordsAfter(
+            String cursor, int size, List<String> fields) {
+        log.info("Fetching drug records after cursor: {}, size: {}, fields: {}",
+                cursor, size, fields);
+
+        // One extra record tells whether there is a next page without counting the collection
+        Limit limit = Limit.of(size + 1);
+        boolean fromStart = cursor == null || cursor.isEmpty();
+        List<DrugRecord> drugRecords;
+        if (fields != null && !fields.isEmpty()) {
+            drugRecords = drugRecordRepository.findAfterProjected(
+                    fromStart ? null : decodeCursor(cursor), limit.max(), validateFields(fields));
+        } else if (fromStart) {
+            drugRecords = drugRecordRepository.findAllByOrderByApplicationNumberAsc(limit);
+        } else {
+            drugRecords = drugRecordRepository
+                    .findByApplicationNumberGreaterThanOrderByApplicationNumberAsc(
+                            decodeCursor(cursor), limit);
+        }
+
+        String nextCursor = null;
+        if (drugRecords.size() > size) {
+            drugRecords = drugRecords.subList(0, size);
+            nextCursor = encodeCursor(drugRecords.get(size - 1).getApplicationNumber());
+        }
+
+        log.info("Fetched {} drug records", drugRecords.size());
+
+        return new DrugRecordCursorPageDto<>(
+                drugRecords.stream().map(drugRecordMapper::toDto).toList(), nextCursor);
+    }
+
     @Override
     public DrugRecordResponseDto findDrugRecordByApplicationNumber(String applicationNumber) {
         log.info("Searching for drug record with application number: {}", applicationNumber);
 
-        return drugRecordRepository.findByApplicationNumber(applicationNumber)
-                .map(drugRecordMapper::toDto)
+        return drugRecordCache.get(applicationNumber, key ->
+                        drugRecordRepository.findByApplicationNumber(key)
+                                .map(drugRecordMapper::toDto))
                 .orElseThrow(() -> {
                     log.error("Drug record not found for application number: {}",
                             applicationNumber);
                     return new EntityNotFoundException(NO_DRUGS_FOUND_ERROR);
                 });
     }
+
+    @Override
+    public DrugRecordSliceDto findDrugRecordsByManufacturerPrefix(String prefix, int page,
+                                                                  int size) {
+        log.info("Searching stored drug records by manufacturer prefix: {}, page: {}, size: {}",
+                prefix, page, size);
+
+        return toSliceDto(drugRecordRepository.findByManufacturerNameStartingWith(prefix,
+                PageRequest.of(page, size, MANUFACTURER_ORDER)));
+    }
+
+    @Override
+    public DrugRecordSliceDto findDrugRecordsBySubstanceName(String substanceName, int page,
+                                                             int size) {
+        log.info("Searching stored drug records by substance: {}, page: {}, size: {}",
+                substanceName, page, size);
+
+        return toSliceDto(drugRecordRepository.findBySubstanceName(substanceName,
+                PageRequest.of(page, size, APPLICATION_NUMBER_ORDER)));
+    }
+
+    @Override
+    public DrugRecordSliceDto findDrugRecordsByProductNumber(String productNumber, int page,
+                                                             int size) {
+        log.info("Searching stored drug records by product number: {}, page: {}, size: {}",
+                productNumber, page, size);
+
+        return toSliceDto(drugRecordRepository.findByProductNumbers(productNumber,
+                PageRequest.of(page, size, APPLICATION_NUMBER_ORDER)));
+    }
+
+    private DrugRecordSliceDto toSliceDto(Slice<DrugRecord> slice) {
+        log.info("Found {} drug records", slice.getNumberOfElements());
+
+        return new DrugRecordSliceDto(
+                slice.getContent().stream().map(drugRecordMapper::toDto).toList(),
+                slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    private Set<String> validateFields(List<String> fields) {
+        Set<String> requested = new LinkedHashSet<>(fields);
+        List<String> unknown = requested.stream()
+                .filter(field -> !PROJECTABLE_FIELDS.contains(field))
+                .toList();
+        if (!unknown.isEmpty()) {
+            throw new InvalidFieldsException(
+                    String.format(UNKNOWN_FIELDS_ERROR, unknown, PROJECTABLE_FIELDS));
+        }
+
+        return requested;
+    }
+
+    private String buildSearchQuery(String manufacturerName, String brandName) {
+        StringBuilder searchQuery = new StringBuilder()
+                .append(MANUFACTURER_NAME_FIELD)
+                .append(manufacturerName);
+
+        if (brandName != null && !brandName.isEmpty()) {
+            searchQuery.append(AND_OPERATOR)
+                    .append(BRAND_NAME_FIELD)
+                    .append(brandName);
+        }
+
+        return searchQuery.toString();
+    }
+
+    private List<DrugRecord> fetchChunk(List<String> applicationNumbers)
+            throws JsonProcessingException {
+        String searchQuery = applicationNumbers.stream()
+                .map(applicationNumber -> APPLICATION_NUMBER_FIELD + applicationNumber)
+                .collect(Collectors.joining(OR_OPERATOR));
+        // Saved records are persisted, so they are fetched past the response cache
+        String rawJson = fdaApiService.fetchFreshDrugData("", searchQuery, PAGE_SIZE_ONE,
+                applicationNumbers.size(), FdaRequestPriority.BATCH);
+
+        return drugRecordExtractor.extractResults(rawJson);
+    }
+
+    /**
+     * Writes the fetched records, keyed by the number they were requested with, and records a
+     * result for each requested number. Numbers requested in different case share one record.
+     */
+    private void persistFetched(Map<String, DrugRecord> fetched,
+                                Map<String, DrugRecordSaveResultDto> results) {
+        List<DrugRecord> drugRecords = fetched.values().stream().distinct().toList();
+        Set<String> failedNumbers = new HashSet<>();
+        String error = null;
+        try {
+            drugRecordRepository.upsertAll(drugRecords);
+        } catch (BulkOperationException e) {
+            log.error("Bulk write of batch save partially failed: {}", e.getMessage());
+            e.getErrors().forEach(writeError -> failedNumbers.add(
+                    drugRecords.get(writeError.getIndex()).getApplicationNumber()));
+            error = e.getMessage();
+        } catch (DataAccessException e) {
+            log.error("Bulk write of batch save failed: {}", e.getMessage());
+            drugRecords.forEach(drugRecord ->
+                    failedNumbers.add(drugRecord.getApplicationNumber()));
+            error = e.getMessage();
+        }
+        drugRecordCache.invalidateAll(drugRecords.stream()
+                .map(DrugRecord::getApplicationNumber)
+                .toList());
+
+        for (Map.Entry<String, DrugRecord> entry : fetched.entrySet()) {
+            String requestedNumber = entry.getKey();
+            results.put(requestedNumber,
+                    failedNumbers.contains(entry.getValue().getApplicationNumber())
+                            ? failed(requestedNumber, error)
+                            : new DrugRecordSaveResultDto(requestedNumber, SaveStatus.SAVED,
+                                    drugRecordMapper.toDto(entry.getValue()), null));
+        }
+    }
+
+    private static String normalizeNumber(String applicationNumber) {
+        return applicationNumber == null
+                ? null
+                : applicationNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private DrugRecordSaveResultDto failed(String applicationNumber, String error) {
+        return new DrugRecordSaveResultDto(applicationNumber, SaveStatus.FAILED, null, error);
+    }
+
+    private String encodeCursor(String applicationNumber) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(applicationNumber.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(INVALID_CURSOR_ERROR);
+        }
+    }
 }
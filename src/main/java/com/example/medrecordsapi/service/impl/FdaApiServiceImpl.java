@@ -1,10 +1,25 @@
 package com.example.medrecordsapi.service.impl;
 
+import com.example.medrecordsapi.cache.FdaQueryKey;
+import com.example.medrecordsapi.cache.FdaResponseCache;
 import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.resilience.FdaAttempt;
+import com.example.medrecordsapi.resilience.FdaBulkhead;
+import com.example.medrecordsapi.resilience.FdaCircuitBreaker;
+import com.example.medrecordsapi.resilience.FdaRequestCoalescer;
+import com.example.medrecordsapi.resilience.FdaRequestHedger;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.resilience.FdaRequestScheduler;
 import com.example.medrecordsapi.service.FdaApiService;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -21,29 +36,70 @@ public class FdaApiServiceImpl implements FdaApiService {
     private static final String SKIP_PARAM_NAME = "skip";
     private static final int PAGE_SIZE_ONE = 1;
     private static final String NO_DRUGS_FOUND_ERROR = "No drug records found";
+    private static final String NO_RESPONSE_ERROR = "FDA API did not respond";
+    private static final String CANCELLED_ERROR = "FDA API attempt was cancelled";
 
     private final RestTemplate restTemplate;
+    private final FdaResponseCache responseCache;
+    private final FdaRequestCoalescer requestCoalescer;
+    private final FdaRequestScheduler requestScheduler;
+    private final FdaBulkhead bulkhead;
+    private final FdaCircuitBreaker circuitBreaker;
+    private final FdaRequestHedger requestHedger;
     private final String apiKey = System.getenv("FDA_API_KEY");
 
-    public String fetchDrugData(String queryParam, String queryValue, int page, int size) {
-        log.info("Fetching drug data with queryParam: {}, queryValue: {}, page: {}, size: {}",
+    @Override
+    public String fetchDrugData(String queryParam, String queryValue, int page, int size,
+                                FdaRequestPriority priority) {
+        log.info("Fetching drug data with queryParam: {}, queryValue: {}, page: {}, size: {}, "
+                + "priority: {}", queryParam, queryValue, page, size, priority);
+
+        FdaQueryKey key = new FdaQueryKey(queryParam, queryValue, page, size);
+        return responseCache.get(key,
+                () -> requestCoalescer.execute(key, () -> requestDrugData(key, priority)));
+    }
+
+    @Override
+    public String fetchFreshDrugData(String queryParam, String queryValue, int page, int size,
+                                     FdaRequestPriority priority) {
+        log.info("Fetching fresh drug data with queryParam: {}, queryValue: {}, page: {}, "
+                + "size: {}, priority: {}", queryParam, queryValue, page, size, priority);
+
+        return requestDrugData(new FdaQueryKey(queryParam, queryValue, page, size), priority);
+    }
+
+    @Override
+    public void streamDrugData(String queryParam, String queryValue, int page, int size,
+                               BodyHandler bodyHandler) {
+        log.info("Streaming drug data with queryParam: {}, queryValue: {}, page: {}, size: {}",
                 queryParam, queryValue, page, size);
 
-        UriComponentsBuilder urlBuilder = UriComponentsBuilder.fromUriString(FDA_BASE_URL);
+        // Bypasses the response cache on purpose, the body is never held in memory as a whole
+        String uriString = buildUri(new FdaQueryKey(queryParam, queryValue, page, size));
 
-        // Append as first parameter only if FDA Api Key is provided in the .env file
-        if (apiKey != null && !apiKey.isEmpty()) {
-            urlBuilder.queryParam(API_KEY_PARAM_NAME, apiKey);
-            log.info("Using API key for FDA API");
+        try {
+            // Error responses are thrown before the body handler runs, so retries are safe
+            requestScheduler.execute(FdaRequestPriority.INTERACTIVE,
+                    () -> streamUpstream(uriString, bodyHandler));
+            log.info("Streamed response from FDA API");
+        } catch (RestClientResponseException e) {
+            log.error("Error occurred while streaming drug data from FDA API: {}",
+                    e.getMessage());
+            throw new DrugRecordNotFoundException(NO_DRUGS_FOUND_ERROR);
         }
+    }
 
-        String uriString = urlBuilder.queryParam(SEARCH_PARAM_NAME, queryParam + queryValue)
-                .queryParam(LIMIT_PARAM_NAME, size) // Pagination limit
-                .queryParam(SKIP_PARAM_NAME, (page - PAGE_SIZE_ONE) * size) // Offset
-                .toUriString();
+    private String requestDrugData(FdaQueryKey key, FdaRequestPriority priority) {
+        String uriString = buildUri(key);
 
         try {
-            String response = restTemplate.getForObject(uriString, String.class);
+            Supplier<String> attempt =
+                    () -> callUpstream(() -> restTemplate.getForObject(uriString, String.class));
+            // Only interactive requests are hedged, batch callers do not wait on the tail
+            String response = requestScheduler.execute(priority,
+                    priority == FdaRequestPriority.INTERACTIVE
+                            ? () -> requestHedger.execute(attempt)
+                            : attempt);
             log.info("Received response from FDA API");
             return response;
         } catch (RestClientResponseException e) {
@@ -52,4 +108,77 @@ public class FdaApiServiceImpl implements FdaApiService {
             throw new DrugRecordNotFoundException(NO_DRUGS_FOUND_ERROR);
         }
     }
+
+    /**
+     * A single attempt against openFDA, holding a bulkhead permit and recorded by the circuit
+     * breaker. The permit is taken per attempt, so callers waiting for the rate limiter or
+     * between retries do not hold one. I/O errors such as read timeouts are reported as
+     * {@link FdaApiTimeoutException} so that they count as failures, unless the attempt was
+     * cancelled, e.g. a hedged attempt that lost, whose aborted request is not recorded.
+     */
+    private <T> T callUpstream(Supplier<T> request) {
+        return bulkhead.execute(() -> circuitBreaker.execute(() -> {
+            try {
+                return request.get();
+            } catch (ResourceAccessException e) {
+                if (FdaAttempt.isCancelled()) {
+                    throw new CancellationException(CANCELLED_ERROR);
+                }
+                log.error("No response from FDA API: {}", e.getMessage());
+                throw new FdaApiTimeoutException(NO_RESPONSE_ERROR);
+            }
+        }));
+    }
+
+    /**
+     * A single streamed attempt. openFDA has answered once the response headers arrive, so the
+     * outcome is recorded and the bulkhead permit released before the body is copied. A slow
+     * or disconnected client then neither holds a permit nor counts against the circuit.
+     */
+    private Void streamUpstream(String uriString, BodyHandler bodyHandler) {
+        try (FdaBulkhead.Permit permit = bulkhead.acquire()) {
+            FdaCircuitBreaker.Call call = circuitBreaker.begin();
+            AtomicBoolean answered = new AtomicBoolean();
+            try {
+                return restTemplate.execute(uriString, HttpMethod.GET, null, response -> {
+                    answered.set(true);
+                    call.onSuccess();
+                    permit.close();
+                    bodyHandler.handle(response.getBody());
+                    return null;
+                });
+            } catch (ResourceAccessException e) {
+                if (answered.get()) {
+                    // Copying the body failed, most likely because the client went away
+                    log.warn("Streaming FDA response aborted: {}", e.getMessage());
+                    throw e;
+                }
+                log.error("No response from FDA API: {}", e.getMessage());
+                FdaApiTimeoutException timeout = new FdaApiTimeoutException(NO_RESPONSE_ERROR);
+                call.onError(timeout);
+                throw timeout;
+            } catch (RuntimeException e) {
+                call.onError(e);
+                throw e;
+            } finally {
+                call.release();
+            }
+        }
+    }
+
+    private String buildUri(FdaQueryKey key) {
+        UriComponentsBuilder urlBuilder = UriComponentsBuilder.fromUriString(FDA_BASE_URL);
+
+        // Append as first parameter only if FDA Api Key is provided in the .env file
+        if (apiKey != null && !apiKey.isEmpty()) {
+            urlBuilder.queryParam(API_KEY_PARAM_NAME, apiKey);
+            log.info("Using API key for FDA API");
+        }
+
+        return urlBuilder
+                .queryParam(SEARCH_PARAM_NAME, key.queryParam() + key.queryValue())
+                .queryParam(LIMIT_PARAM_NAME, key.size()) // Pagination limit
+                .queryParam(SKIP_PARAM_NAME, (key.page() - PAGE_SIZE_ONE) * key.size()) // Offset
+                .toUriString();
+    }
 }
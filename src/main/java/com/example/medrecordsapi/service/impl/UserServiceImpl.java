@@ -7,6 +7,7 @@ import com.example.medrecordsapi.mapper.UserMapper;
 import com.example.medrecordsapi.model.Role;
 import com.example.medrecordsapi.model.User;
 import com.example.medrecordsapi.repository.UserRepository;
+import com.example.medrecordsapi.security.JwtPrincipalResolver;
 import com.example.medrecordsapi.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +24,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final JwtPrincipalResolver principalResolver;
 
     @Override
     public UserResponseDto registerUser(UserRegistrationRequestDto requestDto)
@@ -40,6 +42,7 @@ public class UserServiceImpl implements UserService {
         user.setRole(Role.USER);
 
         User savedUser = userRepository.save(user);
+        principalResolver.evict(savedUser.getEmail());
 
         log.info("User with email {} successfully registered", requestDto.email());
         return userMapper.toDto(savedUser);
@@ -0,0 +1,103 @@
+package com.example.medrecordsapi.benchmark;
+
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the former readTree based extraction in saveDrugRecord with the streaming
+ * extractor. Run with -prof gc and compare gc.alloc.rate.norm (bytes per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DrugRecordExtractionBenchmark {
+
+    private static final String APPLICATION_NUMBER = "NDA021436";
+
+    @Param({"10", "500"})
+    private int submissions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FdaDrugRecordExtractor extractor = new FdaDrugRecordExtractor(objectMapper);
+    private String rawJson;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectNode result = objectMapper.createObjectNode();
+        ArrayNode submissionNodes = result.putArray("submissions");
+        for (int i = 0; i < submissions; i++) {
+            ObjectNode submission = submissionNodes.addObject()
+                    .put("submission_type", "SUPPL")
+                    .put("submission_number", String.valueOf(i))
+                    .put("submission_status", "AP")
+                    .put("submission_status_date", "20240101");
+            submission.putArray("application_docs").addObject()
+                    .put("id", "doc-" + i)
+                    .put("url", "https://www.accessdata.fda.gov/drugsatfda_docs/label/" + i)
+                    .put("type", "Label");
+        }
+        result.put("application_number", APPLICATION_NUMBER);
+        ObjectNode openFda = result.putObject("openfda");
+        openFda.putArray("brand_name").add("ABILIFY");
+        openFda.putArray("manufacturer_name").add("Otsuka America Pharmaceutical, Inc.");
+        openFda.putArray("substance_name").add("ARIPIPRAZOLE");
+        ArrayNode productNdc = openFda.putArray("product_ndc");
+        for (int i = 0; i < 20; i++) {
+            productNdc.add("59148-0" + i);
+        }
+        ArrayNode products = result.putArray("products");
+        for (int i = 0; i < submissions / 5 + 1; i++) {
+            ObjectNode product = products.addObject()
+                    .put("product_number", String.valueOf(i))
+                    .put("dosage_form", "TABLET")
+                    .put("route", "ORAL");
+            product.putArray("active_ingredients").addObject()
+                    .put("name", "ARIPIPRAZOLE")
+                    .put("strength", i + "MG");
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        root.putObject("meta").putObject("results").put("total", 1);
+        root.putArray("results").add(result);
+        rawJson = objectMapper.writeValueAsString(root);
+    }
+
+    @Benchmark
+    public DrugRecord treeModel() throws Exception {
+        JsonNode result = objectMapper.readTree(rawJson).path("results").get(0);
+        JsonNode openFda = result.path("openfda");
+        String manufacturerName = openFda.path("manufacturer_name").get(0).asText();
+        String substanceName = openFda.path("substance_name").get(0).asText();
+        List<String> productNumbers = new ArrayList<>();
+        openFda.path("product_ndc").forEach(node -> productNumbers.add(node.asText()));
+
+        return new DrugRecord(APPLICATION_NUMBER, manufacturerName, substanceName,
+                productNumbers);
+    }
+
+    @Benchmark
+    public DrugRecord streaming() throws Exception {
+        return extractor.extractFirstResult(APPLICATION_NUMBER, rawJson);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.medrecordsapi.benchmark;
+
+import com.example.medrecordsapi.model.DrugRecord;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Latency of reading one page of drug_records at a given depth, with skip/limit plus count (as
+ * done by findAll(Pageable)) versus a keyset query on the application number. Needs a running
+ * MongoDB, set with -Dmongo.uri (defaults to mongodb://localhost:27017). The collection in the
+ * medrecords_benchmark database is seeded on the first run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DrugRecordPaginationBenchmark {
+
+    private static final String DATABASE = "medrecords_benchmark";
+    private static final String ID_FIELD = "_id";
+    private static final int RECORD_COUNT = 300_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({"0", "1000", "10000", "100000", "250000"})
+    private int depth;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private String cursorKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mongoClient = MongoClients.create(System.getProperty("mongo.uri",
+                "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+        if (mongoTemplate.estimatedCount(DrugRecord.class) < RECORD_COUNT) {
+            seed();
+        }
+        cursorKey = depth == 0 ? null : applicationNumber(depth - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public List<DrugRecord> offsetPage() {
+        Query query = new Query().with(PageRequest.of(depth / PAGE_SIZE, PAGE_SIZE,
+                Sort.by(ID_FIELD)));
+        List<DrugRecord> page = mongoTemplate.find(query, DrugRecord.class);
+        // Spring Data runs this count for every Page it returns
+        mongoTemplate.count(new Query(), DrugRecord.class);
+
+        return page;
+    }
+
+    @Benchmark
+    public List<DrugRecord> keysetPage() {
+        Query query = cursorKey == null
+                ? new Query()
+                : Query.query(Criteria.where(ID_FIELD).gt(cursorKey));
+
+        return mongoTemplate.find(query.with(Sort.by(ID_FIELD)).limit(PAGE_SIZE + 1),
+                DrugRecord.class);
+    }
+
+    private void seed() {
+        mongoTemplate.dropCollection(DrugRecord.class);
+        List<DrugRecord> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            batch.add(new DrugRecord(applicationNumber(i), "Manufacturer " + (i % 500),
+                    "SUBSTANCE " + (i % 2000), List.of("0000-" + i)));
+            if (batch.size() == SEED_BATCH_SIZE) {
+                mongoTemplate.insertAll(batch);
+                batch.clear();
+            }
+        }
+        mongoTemplate.insertAll(batch);
+    }
+
+    private static String applicationNumber(int index) {
+        return String.format("NDA%07d", index);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.medrecordsapi.benchmark;
+
+import com.example.medrecordsapi.config.JwtVerificationProperties;
+import com.example.medrecordsapi.security.JwtUtil;
+import com.example.medrecordsapi.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Token handling cost of JwtAuthenticationFilter per request. {@code perCallParsers} is the
+ * former filter, which built a new parser and verified the signature for the validity check,
+ * the subject and the roles. {@code sharedParser} verifies once with the shared parser and
+ * {@code cachedVerification} hits the verified-token cache. Principal resolution is left out,
+ * it does not depend on how the token is verified. Run with -prof gc to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "superLong12345AndStrong12345SecretString";
+
+    private SecretKey key;
+    private JwtUtil sharedParserUtil;
+    private JwtUtil cachingUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        sharedParserUtil = new JwtUtil(SECRET, 60, new JwtVerificationProperties(false, 0),
+                new SimpleMeterRegistry());
+        cachingUtil = new JwtUtil(SECRET, 60, new JwtVerificationProperties(true, 10_000),
+                new SimpleMeterRegistry());
+        token = sharedParserUtil.generateToken("john@example.com",
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    @Benchmark
+    public Object perCallParsers() {
+        boolean valid = !parseClaims().getExpiration().before(new Date());
+        String username = parseClaims().getSubject();
+        List<?> roles = parseClaims().get("roles", List.class);
+
+        return valid ? new Object[] {username, roles} : null;
+    }
+
+    @Benchmark
+    public VerifiedToken sharedParser() {
+        return sharedParserUtil.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerification() {
+        return cachingUtil.verify(token);
+    }
+
+    private Claims parseClaims() {
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.medrecordsapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.medrecordsapi.config.DrugRecordCacheProperties;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrugRecordCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(30);
+    private static final String APPLICATION_NUMBER = "NDA000001";
+    private static final DrugRecordResponseDto DRUG_RECORD = new DrugRecordResponseDto(
+            APPLICATION_NUMBER, "Pfizer", "ATORVASTATIN", List.of("0071-0155"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private long nowNanos;
+    private DrugRecordCache drugRecordCache;
+
+    @BeforeEach
+    void setup() {
+        drugRecordCache = createCache(true);
+    }
+
+    @Test
+    @DisplayName("Cached record is served without calling the loader")
+    void get_CachedRecord_DoesNotCallLoader() {
+        drugRecordCache.get(APPLICATION_NUMBER, this::found);
+        nowNanos += TTL.minusSeconds(1).toNanos();
+
+        Optional<DrugRecordResponseDto> result = drugRecordCache.get(APPLICATION_NUMBER,
+                this::found);
+
+        assertThat(result).contains(DRUG_RECORD);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Not found result is cached for the negative TTL only")
+    void get_NotFound_CachedForNegativeTtl() {
+        drugRecordCache.get(APPLICATION_NUMBER, this::notFound);
+        drugRecordCache.get(APPLICATION_NUMBER, this::notFound);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("drug-records.cache.negative").counter().count())
+                .isEqualTo(1);
+
+        nowNanos += NEGATIVE_TTL.plusSeconds(1).toNanos();
+
+        assertThat(drugRecordCache.get(APPLICATION_NUMBER, this::found)).contains(DRUG_RECORD);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Invalidated key is loaded again")
+    void invalidate_CachedKey_CallsLoader() {
+        drugRecordCache.get(APPLICATION_NUMBER, this::notFound);
+
+        drugRecordCache.invalidate(APPLICATION_NUMBER);
+
+        assertThat(drugRecordCache.get(APPLICATION_NUMBER, this::found)).contains(DRUG_RECORD);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Disabled cache always calls the loader")
+    void get_CacheDisabled_AlwaysCallsLoader() {
+        drugRecordCache = createCache(false);
+
+        drugRecordCache.get(APPLICATION_NUMBER, this::found);
+        drugRecordCache.get(APPLICATION_NUMBER, this::found);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private DrugRecordCache createCache(boolean enabled) {
+        return new DrugRecordCache(new DrugRecordCacheProperties(enabled, 100, TTL, NEGATIVE_TTL),
+                meterRegistry, () -> nowNanos);
+    }
+
+    private Optional<DrugRecordResponseDto> found(String applicationNumber) {
+        loads.incrementAndGet();
+        return Optional.of(DRUG_RECORD);
+    }
+
+    private Optional<DrugRecordResponseDto> notFound(String applicationNumber) {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+}
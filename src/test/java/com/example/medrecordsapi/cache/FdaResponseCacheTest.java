@@ -0,0 +1,142 @@
+package com.example.medrecordsapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaCacheProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+public class FdaResponseCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final Duration STALE_WINDOW = Duration.ofMinutes(10);
+    private static final Duration STALE_IF_ERROR = Duration.ofHours(1);
+    private static final FdaQueryKey KEY =
+            new FdaQueryKey("openfda.application_number:", "123456", 1, 1);
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private FdaResponseCache responseCache;
+
+    @BeforeEach
+    void setup() {
+        responseCache = createCache(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        responseCache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Fresh entry is served without calling upstream")
+    void get_FreshEntry_DoesNotCallLoader() {
+        responseCache.get(KEY, this::loadFromUpstream);
+        ticker.advance(TTL.minusSeconds(1));
+
+        String result = responseCache.get(KEY, this::loadFromUpstream);
+
+        assertThat(result).isEqualTo("response-1");
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Stale entry is served while it is refreshed in the background")
+    void get_StaleEntry_ReturnsStaleAndRefreshes() {
+        responseCache.get(KEY, this::loadFromUpstream);
+        ticker.advance(TTL.plusSeconds(1));
+
+        String stale = responseCache.get(KEY, this::loadFromUpstream);
+
+        assertThat(stale).isEqualTo("response-1");
+        await().untilAsserted(() -> assertThat(upstreamCalls).hasValue(2));
+        await().untilAsserted(() -> assertThat(responseCache.get(KEY, this::loadFromUpstream))
+                .isEqualTo("response-2"));
+    }
+
+    @Test
+    @DisplayName("Entry past the stale window is loaded synchronously")
+    void get_ExpiredEntry_CallsLoader() {
+        responseCache.get(KEY, this::loadFromUpstream);
+        ticker.advance(TTL.plus(STALE_WINDOW).plusSeconds(1));
+
+        String result = responseCache.get(KEY, this::loadFromUpstream);
+
+        assertThat(result).isEqualTo("response-2");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Entry past the stale window is served when openFDA is unavailable")
+    void get_ExpiredEntryUpstreamUnavailable_ReturnsStale() {
+        responseCache.get(KEY, this::loadFromUpstream);
+        ticker.advance(TTL.plus(STALE_WINDOW).plusSeconds(1));
+
+        String result = responseCache.get(KEY, () -> {
+            throw new FdaApiUnavailableException("circuit open");
+        });
+
+        assertThat(result).isEqualTo("response-1");
+    }
+
+    @Test
+    @DisplayName("Entry past the stale-if-error window is no longer served")
+    void get_EntryPastStaleIfErrorUpstreamUnavailable_ThrowsException() {
+        responseCache.get(KEY, this::loadFromUpstream);
+        ticker.advance(TTL.plus(STALE_WINDOW).plus(STALE_IF_ERROR).plusSeconds(1));
+
+        assertThatThrownBy(() -> responseCache.get(KEY, () -> {
+            throw new FdaApiUnavailableException("circuit open");
+        })).isInstanceOf(FdaApiUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Disabled cache always calls upstream")
+    void get_CacheDisabled_AlwaysCallsLoader() {
+        responseCache.shutdown();
+        responseCache = createCache(false);
+
+        responseCache.get(KEY, this::loadFromUpstream);
+        String result = responseCache.get(KEY, this::loadFromUpstream);
+
+        assertThat(result).isEqualTo("response-2");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private FdaResponseCache createCache(boolean enabled) {
+        FdaCacheProperties properties = new FdaCacheProperties(enabled, 100, TTL, STALE_WINDOW,
+                STALE_IF_ERROR, 1, new FdaCacheProperties.Shared(false));
+        return new FdaResponseCache(properties, null, new SimpleMeterRegistry(),
+                new ExecutorFactory(new StandardEnvironment()), ticker);
+    }
+
+    private String loadFromUpstream() {
+        return "response-" + upstreamCalls.incrementAndGet();
+    }
+
+    private static class FakeTicker implements Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
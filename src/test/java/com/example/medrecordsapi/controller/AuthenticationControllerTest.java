@@ -1,5 +1,6 @@
 package com.example.medrecordsapi.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -9,6 +10,7 @@ import com.example.medrecordsapi.dto.user.UserRegistrationRequestDto;
 import com.example.medrecordsapi.dto.user.UserResponseDto;
 import com.example.medrecordsapi.model.Role;
 import com.example.medrecordsapi.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -20,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
@@ -30,6 +33,8 @@ public class AuthenticationControllerTest {
 
     private static final String AUTH_REGISTER_PATH = "/auth/register";
     private static final String AUTH_LOGIN_PATH = "/auth/login";
+    private static final String AUTH_LOGOUT_PATH = "/auth/logout";
+    private static final String DRUG_RECORDS_PATH = "/drug-records";
     private static final String TEST_EMAIL = "test@example.com";
     private static final String TEST_PASSWORD = "password123";
     private static final String TEST_FIRST_NAME = "John";
@@ -239,4 +244,39 @@ public class AuthenticationControllerTest {
                     .andExpect(jsonPath("$.errors[0]").exists());
         }
     }
+
+    @Nested
+    @DisplayName("Logout Tests")
+    class LogoutTests {
+
+        @Test
+        @DisplayName("Logged out token is rejected")
+        void logout_ValidToken_RevokesToken() throws Exception {
+            createAndSaveUser(TEST_EMAIL, TEST_PASSWORD,
+                    TEST_FIRST_NAME, TEST_LAST_NAME, Role.USER);
+            UserLoginRequestDto requestDto = new UserLoginRequestDto(TEST_EMAIL, TEST_PASSWORD);
+            String response = mockMvc.perform(post(AUTH_LOGIN_PATH)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDto)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode login = objectMapper.readTree(response);
+            String bearer = "Bearer " + login.get("token").asText();
+
+            mockMvc.perform(post(AUTH_LOGOUT_PATH)
+                            .header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isNoContent());
+
+            mockMvc.perform(get(DRUG_RECORDS_PATH)
+                            .header(HttpHeaders.AUTHORIZATION, bearer))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        @Test
+        @DisplayName("Logout without a token is unauthorized")
+        void logout_NoToken_ReturnsUnauthorized() throws Exception {
+            mockMvc.perform(post(AUTH_LOGOUT_PATH))
+                    .andExpect(status().isUnauthorized());
+        }
+    }
 }
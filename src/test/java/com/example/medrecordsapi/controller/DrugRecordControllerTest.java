@@ -1,14 +1,32 @@
 package com.example.medrecordsapi.controller;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.hasKey;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.medrecordsapi.cache.DrugRecordCache;
 import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
 import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.search.SearchSnapshotCache;
+import com.example.medrecordsapi.search.SearchSnapshotCache.SearchQuery;
+import com.example.medrecordsapi.search.SearchSnapshotCache.Snapshot;
 import com.example.medrecordsapi.service.FdaApiService;
+import com.jayway.jsonpath.JsonPath;
+import java.io.ByteArrayInputStream;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -17,10 +35,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WithMockUser(username = "testUser")
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -28,19 +48,30 @@ import org.springframework.test.web.servlet.MockMvc;
 public class DrugRecordControllerTest {
 
     private static final String DRUG_RECORDS_SEARCH_PATH = "/drug-records/search";
+    private static final String DRUG_RECORDS_STREAM_PATH = "/drug-records/search/stream";
+    private static final String DRUG_RECORDS_BATCH_PATH = "/drug-records/batch";
     private static final String DRUG_RECORDS_SAVE_PATH = "/drug-records/save/{applicationNumber}";
+    private static final String DRUG_RECORDS_ASYNC_SEARCH_PATH = "/drug-records/async/search";
+    private static final String DRUG_RECORDS_ASYNC_SAVE_PATH =
+            "/drug-records/async/save/{applicationNumber}";
     private static final String DRUG_RECORDS_ALL_PATH = "/drug-records";
+    private static final String DRUG_RECORDS_CURSOR_PATH = "/drug-records/cursor";
+    private static final String DRUG_RECORDS_EXPORT_PATH = "/drug-records/export";
+    private static final String DRUG_RECORDS_BY_SUBSTANCE_PATH = "/drug-records/by-substance";
+    private static final String DRUG_RECORDS_BY_NDC_PATH = "/drug-records/by-ndc";
     private static final String DRUG_RECORDS_BY_APPLICATION_NUMBER_PATH =
             "/drug-records/{applicationNumber}";
     private static final String MANUFACTURER_NAME_FIELD = "openfda.manufacturer_name:";
     private static final String BRAND_NAME_FIELD = "openfda.brand_name:";
     private static final String APPLICATION_NUMBER_FIELD = "openfda.application_number:";
     private static final String AND_OPERATOR = "+AND+";
+    private static final String OR_OPERATOR = "+OR+";
     private static final int PAGE_ONE = 1;
     private static final int SIZE_TEN = 10;
     private static final String TEST_MANUFACTURER = "Test Manufacturer";
     private static final String TEST_BRAND_NAME = "Test Brand";
     private static final String TEST_APPLICATION_NUMBER = "123456";
+    private static final String MISSING_APPLICATION_NUMBER = "999999";
     private static final String MOCK_API_RESPONSE = """
             {
               "results": [
@@ -63,12 +94,19 @@ public class DrugRecordControllerTest {
     @MockitoBean
     private FdaApiService fdaApiService;
 
+    @MockitoBean
+    private SearchSnapshotCache searchSnapshotCache;
+
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private DrugRecordCache drugRecordCache;
+
     @BeforeEach
     void setup() {
         mongoTemplate.getDb().drop();
+        drugRecordCache.invalidateAll();
     }
 
     @Nested
@@ -79,7 +117,8 @@ public class DrugRecordControllerTest {
         @DisplayName("Search drug records by manufacturer name")
         void searchDrugRecords_ValidManufacturerName_ReturnsDrugRecords() throws Exception {
             String searchQuery = MANUFACTURER_NAME_FIELD + TEST_MANUFACTURER;
-            when(fdaApiService.fetchDrugData("", searchQuery, PAGE_ONE, SIZE_TEN))
+            when(fdaApiService.fetchDrugData("", searchQuery, PAGE_ONE, SIZE_TEN,
+                    FdaRequestPriority.INTERACTIVE))
                     .thenReturn(MOCK_API_RESPONSE);
 
             mockMvc.perform(get(DRUG_RECORDS_SEARCH_PATH)
@@ -98,7 +137,8 @@ public class DrugRecordControllerTest {
         void searchDrugRecords_ValidManufacturerAndBrandName_ReturnsDrugRecords() throws Exception {
             String searchQuery = MANUFACTURER_NAME_FIELD + TEST_MANUFACTURER + AND_OPERATOR
                     + BRAND_NAME_FIELD + TEST_BRAND_NAME;
-            when(fdaApiService.fetchDrugData("", searchQuery, PAGE_ONE, SIZE_TEN))
+            when(fdaApiService.fetchDrugData("", searchQuery, PAGE_ONE, SIZE_TEN,
+                    FdaRequestPriority.INTERACTIVE))
                     .thenReturn(MOCK_API_RESPONSE);
 
             mockMvc.perform(get(DRUG_RECORDS_SEARCH_PATH)
@@ -115,6 +155,28 @@ public class DrugRecordControllerTest {
                             .value(TEST_BRAND_NAME));
         }
 
+        @Test
+        @DisplayName("Stream drug records limited to requested fields")
+        void streamDrugRecords_ValidManufacturerName_StreamsRequestedFields() throws Exception {
+            String searchQuery = MANUFACTURER_NAME_FIELD + TEST_MANUFACTURER;
+            doAnswer(invocation -> {
+                invocation.<FdaApiService.BodyHandler>getArgument(4).handle(
+                        new ByteArrayInputStream(MOCK_API_RESPONSE.getBytes(UTF_8)));
+                return null;
+            }).when(fdaApiService).streamDrugData(eq(""), eq(searchQuery), eq(PAGE_ONE),
+                    eq(SIZE_TEN), any());
+
+            mockMvc.perform(get(DRUG_RECORDS_STREAM_PATH)
+                            .param("manufacturerName", TEST_MANUFACTURER)
+                            .param("fields", "openfda.brand_name"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.results[0].openfda.brand_name[0]")
+                            .value(TEST_BRAND_NAME))
+                    .andExpect(jsonPath("$.results[0].openfda.manufacturer_name")
+                            .doesNotExist());
+        }
+
         @Test
         @DisplayName("Search drug records with missing manufacturer name")
         void searchDrugRecords_MissingManufacturerName_ReturnsBadRequest() throws Exception {
@@ -126,6 +188,44 @@ public class DrugRecordControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Search Snapshot Tests")
+    class SearchSnapshotTests {
+
+        private final Snapshot snapshot = new Snapshot("{}".getBytes(UTF_8),
+                new byte[] {0x1f, (byte) 0x8b}, "\"identity\"", "\"identity-gzip\"");
+
+        @BeforeEach
+        void setup() {
+            when(searchSnapshotCache.lookup(
+                    new SearchQuery(TEST_MANUFACTURER, null, PAGE_ONE, SIZE_TEN)))
+                    .thenReturn(Optional.of(snapshot));
+        }
+
+        @Test
+        @DisplayName("Snapshot is served gzip encoded when gzip is accepted")
+        void searchDrugRecords_GzipAccepted_ReturnsGzipSnapshot() throws Exception {
+            mockMvc.perform(get(DRUG_RECORDS_SEARCH_PATH)
+                            .param("manufacturerName", TEST_MANUFACTURER)
+                            .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.5"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.ETAG, snapshot.gzipEtag()));
+        }
+
+        @Test
+        @DisplayName("Snapshot is served unencoded when gzip has q=0")
+        void searchDrugRecords_GzipRefused_ReturnsIdentitySnapshot() throws Exception {
+            mockMvc.perform(get(DRUG_RECORDS_SEARCH_PATH)
+                            .param("manufacturerName", TEST_MANUFACTURER)
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.ETAG, snapshot.etag()))
+                    .andExpect(content().string("{}"));
+        }
+    }
+
     @Nested
     @DisplayName("Save Drug Record Tests")
     class SaveDrugRecordTests {
@@ -134,7 +234,8 @@ public class DrugRecordControllerTest {
         @DisplayName("Save drug record successfully")
         void saveDrugRecord_ValidApplicationNumber_ReturnsDrugRecordResponseDto() throws Exception {
             when(fdaApiService.fetchDrugData(APPLICATION_NUMBER_FIELD, TEST_APPLICATION_NUMBER,
-                    PAGE_ONE, PAGE_ONE)).thenReturn(MOCK_API_RESPONSE);
+                    PAGE_ONE, PAGE_ONE, FdaRequestPriority.INTERACTIVE))
+                    .thenReturn(MOCK_API_RESPONSE);
 
             mockMvc.perform(get(DRUG_RECORDS_SAVE_PATH, TEST_APPLICATION_NUMBER)
                             .contentType(MediaType.APPLICATION_JSON))
@@ -146,7 +247,7 @@ public class DrugRecordControllerTest {
         @DisplayName("Save drug record with invalid application number")
         void saveDrugRecord_InvalidApplicationNumber_ReturnsNotFound() throws Exception {
             when(fdaApiService.fetchDrugData(APPLICATION_NUMBER_FIELD, TEST_APPLICATION_NUMBER,
-                    PAGE_ONE, PAGE_ONE))
+                    PAGE_ONE, PAGE_ONE, FdaRequestPriority.INTERACTIVE))
                     .thenThrow(new DrugRecordNotFoundException("Drug record not found"));
 
             mockMvc.perform(get(DRUG_RECORDS_SAVE_PATH, TEST_APPLICATION_NUMBER)
@@ -156,6 +257,100 @@ public class DrugRecordControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Batch Save Drug Record Tests")
+    class BatchSaveDrugRecordTests {
+
+        @Test
+        @DisplayName("Batch save returns a status per application number")
+        void saveDrugRecords_ValidApplicationNumbers_ReturnsStatusPerNumber() throws Exception {
+            when(fdaApiService.fetchDrugData("", APPLICATION_NUMBER_FIELD + TEST_APPLICATION_NUMBER
+                    + OR_OPERATOR + APPLICATION_NUMBER_FIELD + MISSING_APPLICATION_NUMBER,
+                    PAGE_ONE, 2, FdaRequestPriority.BATCH)).thenReturn(MOCK_API_RESPONSE);
+
+            mockMvc.perform(post(DRUG_RECORDS_BATCH_PATH)
+                            .content("{\"applicationNumbers\": [\"" + TEST_APPLICATION_NUMBER
+                                    + "\", \"" + MISSING_APPLICATION_NUMBER + "\"]}")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].status").value("SAVED"))
+                    .andExpect(jsonPath("$[0].drugRecord.applicationNumber")
+                            .value(TEST_APPLICATION_NUMBER))
+                    .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+        }
+
+        @Test
+        @DisplayName("Batch save with empty list")
+        void saveDrugRecords_EmptyList_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(post(DRUG_RECORDS_BATCH_PATH)
+                            .content("{\"applicationNumbers\": []}")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("Async Drug Record Tests")
+    class AsyncDrugRecordTests {
+
+        @Test
+        @DisplayName("Search drug records asynchronously")
+        void searchDrugRecordsAsync_ValidManufacturerName_ReturnsDrugRecords() throws Exception {
+            String searchQuery = MANUFACTURER_NAME_FIELD + TEST_MANUFACTURER;
+            when(fdaApiService.fetchDrugData("", searchQuery, PAGE_ONE, SIZE_TEN,
+                    FdaRequestPriority.INTERACTIVE))
+                    .thenReturn(MOCK_API_RESPONSE);
+
+            MvcResult mvcResult = mockMvc.perform(get(DRUG_RECORDS_ASYNC_SEARCH_PATH)
+                            .param("manufacturerName", TEST_MANUFACTURER)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.results[0].openfda.manufacturer_name[0]")
+                            .value(TEST_MANUFACTURER));
+        }
+
+        @Test
+        @DisplayName("Save drug record asynchronously")
+        void saveDrugRecordAsync_ValidApplicationNumber_ReturnsDrugRecordResponseDto()
+                throws Exception {
+            when(fdaApiService.fetchDrugData(APPLICATION_NUMBER_FIELD, TEST_APPLICATION_NUMBER,
+                    PAGE_ONE, PAGE_ONE, FdaRequestPriority.INTERACTIVE))
+                    .thenReturn(MOCK_API_RESPONSE);
+
+            MvcResult mvcResult = mockMvc.perform(get(DRUG_RECORDS_ASYNC_SAVE_PATH,
+                            TEST_APPLICATION_NUMBER)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.applicationNumber").value(TEST_APPLICATION_NUMBER));
+        }
+
+        @Test
+        @DisplayName("Async save with invalid application number")
+        void saveDrugRecordAsync_InvalidApplicationNumber_ReturnsNotFound() throws Exception {
+            when(fdaApiService.fetchDrugData(APPLICATION_NUMBER_FIELD, TEST_APPLICATION_NUMBER,
+                    PAGE_ONE, PAGE_ONE, FdaRequestPriority.INTERACTIVE))
+                    .thenThrow(new DrugRecordNotFoundException("Drug record not found"));
+
+            MvcResult mvcResult = mockMvc.perform(get(DRUG_RECORDS_ASYNC_SAVE_PATH,
+                            TEST_APPLICATION_NUMBER)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.errors[0]").exists());
+        }
+    }
+
     @Nested
     @DisplayName("Get All Drug Records Tests")
     class GetAllDrugRecordsTests {
@@ -175,6 +370,105 @@ public class DrugRecordControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.size()").value(2));
         }
+
+        @Test
+        @DisplayName("Get only the requested fields of drug records")
+        void getAllDrugRecords_FieldsRequested_ReturnsOnlyRequestedFields() throws Exception {
+            mongoTemplate.save(new DrugRecord("12345", "Pfizer", "Paracetamol", List.of("123")));
+
+            mockMvc.perform(get(DRUG_RECORDS_ALL_PATH)
+                            .param("fields", "manufacturerName"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].manufacturerName").value("Pfizer"))
+                    .andExpect(jsonPath("$[0].applicationNumber").doesNotExist())
+                    .andExpect(jsonPath("$[0].productNumbers").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Full drug records keep null properties")
+        void getAllDrugRecords_NoFieldsRequested_ReturnsNullProperties() throws Exception {
+            mongoTemplate.save(new DrugRecord("12345", "Pfizer", null, List.of("123")));
+
+            mockMvc.perform(get(DRUG_RECORDS_ALL_PATH))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0]", hasKey("substanceName")));
+        }
+
+        @Test
+        @DisplayName("Unknown field returns bad request")
+        void getAllDrugRecords_UnknownField_ReturnsBadRequest() throws Exception {
+            mockMvc.perform(get(DRUG_RECORDS_ALL_PATH)
+                            .param("fields", "manufacturerName,password"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Get drug records page by page with a cursor")
+        void getDrugRecordsAfter_RecordsExistInDb_ReturnsPagesInOrder() throws Exception {
+            mongoTemplate.save(new DrugRecord("54321", "Pfizer", "Paracetamol", List.of("444")));
+            mongoTemplate.save(new DrugRecord("12345", "Pfizer", "Paracetamol", List.of("123")));
+
+            MvcResult firstPage = mockMvc.perform(get(DRUG_RECORDS_CURSOR_PATH)
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.drugRecords[0].applicationNumber").value("12345"))
+                    .andExpect(jsonPath("$.nextCursor").exists())
+                    .andReturn();
+            String nextCursor = JsonPath.read(
+                    firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+            mockMvc.perform(get(DRUG_RECORDS_CURSOR_PATH)
+                            .param("cursor", nextCursor)
+                            .param("size", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.drugRecords[0].applicationNumber").value("54321"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("Export all drug records as newline delimited JSON")
+        void exportDrugRecords_RecordsExistInDb_StreamsOneRecordPerLine() throws Exception {
+            mongoTemplate.save(new DrugRecord("54321", "Pfizer", "Paracetamol", List.of("444")));
+            mongoTemplate.save(new DrugRecord("12345", "Pfizer", "Paracetamol", List.of("123")));
+
+            mockMvc.perform(get(DRUG_RECORDS_EXPORT_PATH))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(content().string("""
+                            {"applicationNumber":"12345","manufacturerName":"Pfizer",\
+                            "substanceName":"Paracetamol","productNumbers":["123"]}
+                            {"applicationNumber":"54321","manufacturerName":"Pfizer",\
+                            "substanceName":"Paracetamol","productNumbers":["444"]}
+                            """));
+        }
+    }
+
+    @Nested
+    @DisplayName("Query Stored Drug Records Tests")
+    class QueryStoredDrugRecordsTests {
+
+        @Test
+        @DisplayName("Find drug records by substance ignoring case")
+        void findDrugRecordsBySubstanceName_RecordsExistInDb_ReturnsMatchingRecords()
+                throws Exception {
+            mongoTemplate.save(new DrugRecord("12345", "Pfizer", "PARACETAMOL", List.of("123")));
+            mongoTemplate.save(new DrugRecord("54321", "Bayer", "ASPIRIN", List.of("444")));
+
+            mockMvc.perform(get(DRUG_RECORDS_BY_SUBSTANCE_PATH)
+                            .param("name", "paracetamol"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.drugRecords.size()").value(1))
+                    .andExpect(jsonPath("$.drugRecords[0].applicationNumber").value("12345"))
+                    .andExpect(jsonPath("$.hasNext").value(false));
+        }
+
+        @Test
+        @DisplayName("Missing product number returns bad request")
+        void findDrugRecordsByProductNumber_MissingProductNumber_ReturnsBadRequest()
+                throws Exception {
+            mockMvc.perform(get(DRUG_RECORDS_BY_NDC_PATH))
+                    .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
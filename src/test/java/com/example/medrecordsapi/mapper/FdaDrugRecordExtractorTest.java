@@ -0,0 +1,76 @@
+package com.example.medrecordsapi.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FdaDrugRecordExtractorTest {
+
+    private static final String APPLICATION_NUMBER = "BLA761174";
+
+    private final FdaDrugRecordExtractor extractor =
+            new FdaDrugRecordExtractor(new ObjectMapper());
+
+    @Test
+    @DisplayName("Needed fields are extracted and everything else is skipped")
+    void extractFirstResult_FullDocument_ReturnsDrugRecord() throws Exception {
+        String rawJson = """
+                {
+                  "meta": {"results": {"skip": 0, "limit": 1, "total": 2}},
+                  "results": [
+                    {
+                      "submissions": [{"submission_type": "ORIG", "docs": [{"id": "1"}]}],
+                      "application_number": "BLA761174",
+                      "openfda": {
+                        "brand_name": ["JEMPERLI"],
+                        "manufacturer_name": ["GlaxoSmithKline LLC", "Other"],
+                        "substance_name": ["DOSTARLIMAB"],
+                        "product_ndc": ["0173-0898", "0173-0899"]
+                      },
+                      "products": [{"product_number": "001", "active_ingredients": []}]
+                    },
+                    {
+                      "openfda": {"manufacturer_name": ["Ignored"]}
+                    }
+                  ]
+                }
+                """;
+
+        DrugRecord drugRecord = extractor.extractFirstResult(APPLICATION_NUMBER, rawJson);
+
+        assertThat(drugRecord).isEqualTo(new DrugRecord(APPLICATION_NUMBER,
+                "GlaxoSmithKline LLC", "DOSTARLIMAB", List.of("0173-0898", "0173-0899")));
+    }
+
+    @Test
+    @DisplayName("Result without openfda section yields empty fields")
+    void extractFirstResult_NoOpenFdaSection_ReturnsEmptyFields() throws Exception {
+        String rawJson = """
+                {"results": [{"application_number": "BLA761174", "products": []}]}
+                """;
+
+        DrugRecord drugRecord = extractor.extractFirstResult(APPLICATION_NUMBER, rawJson);
+
+        assertThat(drugRecord.getManufacturerName()).isNull();
+        assertThat(drugRecord.getSubstanceName()).isNull();
+        assertThat(drugRecord.getProductNumbers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Empty results throw not found")
+    void extractFirstResult_EmptyResults_ThrowsException() {
+        String rawJson = """
+                {"meta": {}, "results": []}
+                """;
+
+        assertThatThrownBy(() -> extractor.extractFirstResult(APPLICATION_NUMBER, rawJson))
+                .isInstanceOf(DrugRecordNotFoundException.class)
+                .hasMessageContaining("No drug records found");
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.medrecordsapi.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FdaResultFieldFilterTest {
+
+    private static final String RESPONSE = """
+            {
+              "meta": {"results": {"skip": 0, "limit": 2, "total": 2}},
+              "results": [
+                {
+                  "application_number": "BLA761174",
+                  "openfda": {
+                    "brand_name": ["JEMPERLI"],
+                    "manufacturer_name": ["GlaxoSmithKline LLC"]
+                  },
+                  "products": [{"product_number": "001"}]
+                },
+                {
+                  "submissions": [{"submission_type": "ORIG"}]
+                }
+              ]
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FdaResultFieldFilter fieldFilter = new FdaResultFieldFilter(objectMapper);
+
+    @Test
+    @DisplayName("Without fields the body is copied unchanged")
+    void copy_NoFields_CopiesBody() throws Exception {
+        String output = copy(List.of());
+
+        assertThat(output).isEqualTo(RESPONSE);
+    }
+
+    @Test
+    @DisplayName("Only requested fields of each result are kept")
+    void copy_NestedFields_KeepsRequestedFieldsOnly() throws Exception {
+        JsonNode output = objectMapper.readTree(
+                copy(List.of("application_number", "openfda.brand_name")));
+
+        assertThat(output.path("meta").path("results").path("total").asInt()).isEqualTo(2);
+        JsonNode first = output.path("results").get(0);
+        assertThat(first.path("application_number").asText()).isEqualTo("BLA761174");
+        assertThat(first.path("openfda").path("brand_name").get(0).asText())
+                .isEqualTo("JEMPERLI");
+        assertThat(first.path("openfda").has("manufacturer_name")).isFalse();
+        assertThat(first.has("products")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Results without requested fields are kept as empty objects")
+    void copy_ResultWithoutFields_KeepsEmptyObject() throws Exception {
+        JsonNode output = objectMapper.readTree(copy(List.of("application_number")));
+
+        assertThat(output.path("results").size()).isEqualTo(2);
+        assertThat(output.path("results").get(1).isEmpty()).isTrue();
+    }
+
+    private String copy(List<String> fields) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        fieldFilter.copy(new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8)),
+                outputStream, fields);
+
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
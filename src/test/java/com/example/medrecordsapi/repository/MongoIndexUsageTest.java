@@ -0,0 +1,157 @@
+package com.example.medrecordsapi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.model.RevokedToken;
+import com.example.medrecordsapi.model.Role;
+import com.example.medrecordsapi.model.User;
+import com.example.medrecordsapi.repository.index.MongoIndexInitializer;
+import com.example.medrecordsapi.repository.index.MongoIndexes;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Runs explain() for the filter each repository query sends and asserts the winning plan uses
+ * an index instead of a collection scan.
+ */
+@SpringBootTest
+public class MongoIndexUsageTest {
+
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+    private static final String IN_MEMORY_SORT = "SORT";
+    private static final List<String> INDEX_STAGES =
+            List.of("IXSCAN", "IDHACK", "EXPRESS_IXSCAN", "EXPRESS_IDHACK");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.getDb().drop();
+        mongoTemplate.save(new User(null, "John@Example.com", "password", "John", "Doe",
+                Role.USER));
+        mongoTemplate.save(new DrugRecord("NDA000001", "Pfizer Inc", "ATORVASTATIN",
+                List.of("0071-0155")));
+        mongoTemplate.save(new DrugRecord("NDA000002", "Bayer", "ASPIRIN",
+                List.of("0280-2000")));
+        assertThat(mongoIndexInitializer.createIndexes()).isEqualTo(MongoIndexes.ALL.size());
+    }
+
+    @Test
+    @DisplayName("UserRepository.findByEmailIgnoreCase uses the case-insensitive index")
+    void findByEmailIgnoreCase_UsesIndex() {
+        assertUsesIndex(mongoTemplate.getCollection("users")
+                .find(new Document("email", "john@example.com"))
+                .collation(MongoIndexes.caseInsensitive().toMongoCollation()));
+    }
+
+    @Test
+    @DisplayName("DrugRecordRepository lookups by application number use the id index")
+    void findByApplicationNumber_UsesIndex() {
+        assertUsesIndex(drugRecords().find(new Document("_id", "NDA000001")));
+        assertUsesIndex(drugRecords()
+                .find(new Document("_id", new Document("$gt", "NDA000001")))
+                .sort(new Document("_id", 1))
+                .limit(21));
+    }
+
+    @Test
+    @DisplayName("DrugRecordRepository.findByManufacturerNameStartingWith uses the index order")
+    void findByManufacturerNameStartingWith_UsesIndex() {
+        assertUsesIndexWithoutSort(drugRecords()
+                .find(new Document("manufacturerName",
+                        new Document("$regex", "^\\QPfi\\E")))
+                .sort(new Document("manufacturerName", 1).append("_id", 1))
+                .limit(21));
+    }
+
+    @Test
+    @DisplayName("DrugRecordRepository.findBySubstanceName uses the collated index order")
+    void findBySubstanceName_UsesIndex() {
+        assertUsesIndexWithoutSort(drugRecords()
+                .find(new Document("substanceName", "atorvastatin"))
+                .collation(MongoIndexes.caseInsensitive().toMongoCollation())
+                .sort(new Document("_id", 1))
+                .limit(21));
+    }
+
+    @Test
+    @DisplayName("DrugRecordRepository.findByProductNumbers uses the multikey index order")
+    void findByProductNumbers_UsesIndex() {
+        assertUsesIndexWithoutSort(drugRecords()
+                .find(new Document("productNumbers", "0071-0155"))
+                .sort(new Document("_id", 1))
+                .limit(21));
+    }
+
+    @Test
+    @DisplayName("DrugRecordRepository.findLeastRecentlyChecked uses the lastCheckedAt index order")
+    void findLeastRecentlyChecked_UsesIndex() {
+        assertUsesIndexWithoutSort(drugRecords()
+                .find(new Document("lastCheckedAt",
+                        new Document("$not", new Document("$gte", new Date()))))
+                .sort(new Document("lastCheckedAt", 1).append("_id", 1))
+                .limit(50));
+    }
+
+    @Test
+    @DisplayName("RevokedTokenRepository refresh queries use the revokedAt and TTL indexes")
+    void revokedTokenRefresh_UsesIndex() {
+        MongoCollection<Document> revokedTokens = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(RevokedToken.class));
+        assertUsesIndex(revokedTokens.find(
+                new Document("revokedAt", new Document("$gte", new Date()))));
+        assertUsesIndex(revokedTokens.find(
+                new Document("expiresAt", new Document("$gt", new Date()))));
+    }
+
+    private MongoCollection<Document> drugRecords() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(DrugRecord.class));
+    }
+
+    private void assertUsesIndex(FindIterable<Document> query) {
+        assertThat(winningPlanStages(query))
+                .doesNotContain(COLLECTION_SCAN)
+                .containsAnyElementsOf(INDEX_STAGES);
+    }
+
+    private void assertUsesIndexWithoutSort(FindIterable<Document> query) {
+        assertThat(winningPlanStages(query))
+                .doesNotContain(COLLECTION_SCAN, IN_MEMORY_SORT)
+                .containsAnyElementsOf(INDEX_STAGES);
+    }
+
+    private List<String> winningPlanStages(FindIterable<Document> query) {
+        Document winningPlan = query.explain().get("queryPlanner", Document.class)
+                .get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+
+        return stages;
+    }
+
+    private void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
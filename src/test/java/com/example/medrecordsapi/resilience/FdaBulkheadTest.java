@@ -0,0 +1,50 @@
+package com.example.medrecordsapi.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.medrecordsapi.config.FdaBulkheadProperties;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FdaBulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FdaBulkhead bulkhead = new FdaBulkhead(
+            new FdaBulkheadProperties(true, 1, Duration.ofMillis(20)), meterRegistry);
+
+    @Test
+    @DisplayName("Call over the concurrency cap is rejected and a freed slot is reused")
+    void execute_BulkheadFull_ThrowsException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() ->
+                bulkhead.execute(() -> {
+                    started.countDown();
+                    await(release);
+                    return "first";
+                }));
+        started.await();
+
+        assertThatThrownBy(() -> bulkhead.execute(() -> "second"))
+                .isInstanceOf(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("fda.bulkhead.in-flight").gauge().value()).isEqualTo(1);
+        release.countDown();
+        assertThat(inFlight.join()).isEqualTo("first");
+        assertThat(bulkhead.execute(() -> "third")).isEqualTo("third");
+        assertThat(meterRegistry.get("fda.bulkhead.rejected").counter().count()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.medrecordsapi.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.medrecordsapi.config.FdaCircuitBreakerProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.example.medrecordsapi.resilience.FdaCircuitBreaker.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+public class FdaCircuitBreakerTest {
+
+    private static final Duration SLOW_CALL = Duration.ofSeconds(3);
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FdaCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setup() {
+        circuitBreaker = new FdaCircuitBreaker(new FdaCircuitBreakerProperties(true, 10, 4, 0.5,
+                SLOW_CALL, 0.5, OPEN_DURATION, 2), meterRegistry, clock);
+    }
+
+    @Test
+    @DisplayName("Failure rate over the threshold opens the circuit and rejects calls")
+    void execute_FailureRateReached_OpensCircuit() {
+        succeed();
+        succeed();
+        fail();
+        fail();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> "response"))
+                .isInstanceOf(FdaApiUnavailableException.class);
+        assertThat(meterRegistry.get("fda.circuit-breaker.calls")
+                .tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Slow successful calls open the circuit")
+    void execute_SlowCallRateReached_OpensCircuit() {
+        succeed();
+        succeed();
+        circuitBreaker.execute(() -> clock.advance(SLOW_CALL));
+        circuitBreaker.execute(() -> clock.advance(SLOW_CALL));
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    @DisplayName("Client errors and throttling are not recorded as failures")
+    void execute_ClientErrors_KeepCircuitClosed() {
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", null,
+                        null, null);
+            })).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Successful trial calls after the open duration close the circuit")
+    void execute_HalfOpenTrialsSucceed_ClosesCircuit() {
+        openCircuit();
+        clock.advance(OPEN_DURATION);
+
+        succeed();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        succeed();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Failed trial call opens the circuit again")
+    void execute_HalfOpenTrialFails_ReopensCircuit() {
+        openCircuit();
+        clock.advance(OPEN_DURATION);
+
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw new FdaApiTimeoutException("FDA API did not respond");
+        })).isInstanceOf(FdaApiTimeoutException.class);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> "response"))
+                .isInstanceOf(FdaApiUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Error thrown by a trial call returns its permit")
+    void execute_HalfOpenTrialThrowsError_ReleasesPermit() {
+        openCircuit();
+        clock.advance(OPEN_DURATION);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+                throw new AssertionError("unexpected");
+            })).isInstanceOf(AssertionError.class);
+        }
+        succeed();
+        succeed();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private void succeed() {
+        circuitBreaker.execute(() -> "response");
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "", null,
+                    null, null);
+        })).isInstanceOf(HttpServerErrorException.class);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        Instant advance(Duration duration) {
+            now = now.plus(duration);
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
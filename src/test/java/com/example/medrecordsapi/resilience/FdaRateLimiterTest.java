@@ -0,0 +1,102 @@
+package com.example.medrecordsapi.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.example.medrecordsapi.config.FdaRateLimitProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FdaRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Burst is served right away and the next request is rejected")
+    void acquire_BurstExhausted_ThrowsException() {
+        FdaRateLimiter rateLimiter = createLimiter(60, 2, 1000, Duration.ofMillis(50));
+
+        rateLimiter.acquire(FdaRequestPriority.INTERACTIVE);
+        rateLimiter.acquire(FdaRequestPriority.INTERACTIVE);
+
+        assertThatThrownBy(() -> rateLimiter.acquire(FdaRequestPriority.INTERACTIVE))
+                .isInstanceOf(FdaApiThrottledException.class);
+        assertThat(meterRegistry.get("fda.rate-limiter.rejected")
+                .tag("priority", "interactive").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Refunded token can be taken again right away")
+    void refund_TokenTaken_AllowsNextRequest() {
+        FdaRateLimiter rateLimiter = createLimiter(60, 1, 1000, Duration.ofMillis(50));
+        rateLimiter.acquire(FdaRequestPriority.INTERACTIVE);
+
+        rateLimiter.refund();
+
+        rateLimiter.acquire(FdaRequestPriority.INTERACTIVE);
+        assertThat(meterRegistry.get("fda.rate-limiter.rejected")
+                .tag("priority", "interactive").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Daily quota of the tier rejects without waiting")
+    void acquire_DailyQuotaExhausted_ThrowsException() {
+        FdaRateLimiter rateLimiter = createLimiter(600, 10, 1, Duration.ofSeconds(5));
+        rateLimiter.acquire(FdaRequestPriority.BATCH);
+
+        assertThatThrownBy(() -> rateLimiter.acquire(FdaRequestPriority.BATCH))
+                .isInstanceOf(FdaApiThrottledException.class)
+                .extracting(e -> ((FdaApiThrottledException) e).getRetryAfter())
+                .matches(retryAfter -> retryAfter.compareTo(Duration.ofMinutes(1)) > 0);
+    }
+
+    @Test
+    @DisplayName("Waiting interactive request gets the next token before a waiting batch one")
+    void acquire_BothLanesWaiting_ServesInteractiveFirst() {
+        FdaRateLimiter rateLimiter = createLimiter(300, 1, 1000, Duration.ofSeconds(2));
+        rateLimiter.acquire(FdaRequestPriority.BATCH);
+        List<FdaRequestPriority> served = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> {
+            rateLimiter.acquire(FdaRequestPriority.BATCH);
+            served.add(FdaRequestPriority.BATCH);
+        });
+        await().pollDelay(Duration.ofMillis(20)).until(() -> true);
+        CompletableFuture<Void> interactive = CompletableFuture.runAsync(() -> {
+            rateLimiter.acquire(FdaRequestPriority.INTERACTIVE);
+            served.add(FdaRequestPriority.INTERACTIVE);
+        });
+        CompletableFuture.allOf(batch, interactive).join();
+
+        assertThat(served).containsExactly(FdaRequestPriority.INTERACTIVE,
+                FdaRequestPriority.BATCH);
+    }
+
+    @Test
+    @DisplayName("Upstream 429 pauses callers and lowers the rate")
+    void onThrottled_RetryAfter_PausesAndHalvesRate() {
+        FdaRateLimiter rateLimiter = createLimiter(600, 10, 1000, Duration.ofMillis(50));
+
+        rateLimiter.onThrottled(Duration.ofSeconds(1));
+
+        assertThat(rateLimiter.currentRequestsPerMinute()).isEqualTo(300);
+        assertThatThrownBy(() -> rateLimiter.acquire(FdaRequestPriority.INTERACTIVE))
+                .isInstanceOf(FdaApiThrottledException.class);
+        rateLimiter.onSuccess();
+        assertThat(rateLimiter.currentRequestsPerMinute()).isEqualTo(330);
+    }
+
+    private FdaRateLimiter createLimiter(int requestsPerMinute, int burstCapacity,
+                                         int requestsPerDay, Duration maxWait) {
+        return new FdaRateLimiter(new FdaRateLimitProperties(true, requestsPerMinute,
+                burstCapacity, requestsPerDay, requestsPerDay, maxWait, maxWait, 0.1, 0.05),
+                "", meterRegistry);
+    }
+}
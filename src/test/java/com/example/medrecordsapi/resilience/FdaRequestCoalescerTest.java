@@ -0,0 +1,127 @@
+package com.example.medrecordsapi.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.medrecordsapi.cache.FdaQueryKey;
+import com.example.medrecordsapi.config.FdaCoalescingProperties;
+import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FdaRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+    private static final FdaQueryKey KEY =
+            new FdaQueryKey("", "openfda.manufacturer_name:Pfizer", 1, 10);
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Concurrent identical queries share one upstream call")
+    void execute_ConcurrentIdenticalQueries_CallsUpstreamOnce() throws Exception {
+        FdaRequestCoalescer coalescer = createCoalescer(Duration.ofSeconds(5));
+
+        List<Future<String>> results = submitConcurrently(coalescer, () -> {
+            upstreamCalls.incrementAndGet();
+            awaitRelease();
+            return "response";
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("response");
+        }
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Waiters receive the error of the shared call")
+    void execute_SharedCallFails_AllCallersGetSameError() throws Exception {
+        FdaRequestCoalescer coalescer = createCoalescer(Duration.ofSeconds(5));
+        DrugRecordNotFoundException failure = new DrugRecordNotFoundException("No drug records");
+
+        List<Future<String>> results = submitConcurrently(coalescer, () -> {
+            upstreamCalls.incrementAndGet();
+            awaitRelease();
+            throw failure;
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        }
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Waiter gives up after its timeout")
+    void execute_SharedCallTooSlow_WaiterTimesOut() throws Exception {
+        FdaRequestCoalescer coalescer = createCoalescer(Duration.ofMillis(50));
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        callers.submit(() -> coalescer.execute(KEY, () -> {
+            leaderStarted.countDown();
+            awaitRelease();
+            return "response";
+        }));
+        leaderStarted.await(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> coalescer.execute(KEY, () -> "other"))
+                .isInstanceOf(FdaApiTimeoutException.class);
+    }
+
+    private List<Future<String>> submitConcurrently(FdaRequestCoalescer coalescer,
+                                                    Supplier<String> call)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                started.countDown();
+                return coalescer.execute(KEY, call);
+            }));
+        }
+        started.await(5, TimeUnit.SECONDS);
+        // Give every caller a moment to either lead or join the shared request
+        Thread.sleep(100);
+
+        return results;
+    }
+
+    private FdaRequestCoalescer createCoalescer(Duration waitTimeout) {
+        return new FdaRequestCoalescer(
+                new FdaCoalescingProperties(true, waitTimeout), new SimpleMeterRegistry());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
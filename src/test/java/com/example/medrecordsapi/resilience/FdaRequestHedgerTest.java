@@ -0,0 +1,140 @@
+package com.example.medrecordsapi.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaBulkheadProperties;
+import com.example.medrecordsapi.config.FdaHedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+public class FdaRequestHedgerTest {
+
+    private static final int MINIMUM_SAMPLES = 5;
+    private static final Duration SLOW_RESPONSE = Duration.ofSeconds(2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FdaRateLimiter rateLimiter = mock(FdaRateLimiter.class);
+    private final AtomicInteger attempts = new AtomicInteger();
+    private FdaRequestHedger requestHedger;
+
+    @AfterEach
+    void tearDown() {
+        requestHedger.shutdown();
+    }
+
+    @Test
+    @DisplayName("Slow attempt is hedged and the faster backup answers")
+    void execute_SlowPrimary_ReturnsBackupResponse() {
+        requestHedger = createHedger(1.0);
+        when(rateLimiter.tryAcquire()).thenReturn(true);
+        warmUp();
+
+        long start = System.nanoTime();
+        String result = requestHedger.execute(this::firstAttemptSlow);
+
+        assertThat(result).isEqualTo("attempt-2");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(SLOW_RESPONSE);
+        assertThat(meterRegistry.get("fda.hedging.requests").tag("outcome", "hedge-won")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Losing attempt is aborted and releases its bulkhead permit")
+    void execute_LosingAttempt_ReleasesBulkheadPermit() {
+        requestHedger = createHedger(1.0);
+        when(rateLimiter.tryAcquire()).thenReturn(true);
+        FdaBulkhead bulkhead = new FdaBulkhead(
+                new FdaBulkheadProperties(true, 2, Duration.ofMillis(20)), meterRegistry);
+        warmUp();
+
+        String result = requestHedger.execute(
+                () -> bulkhead.execute(this::firstAttemptBlocksUntilAborted));
+
+        assertThat(result).isEqualTo("attempt-2");
+        await().atMost(SLOW_RESPONSE.dividedBy(4)).untilAsserted(() -> assertThat(
+                meterRegistry.get("fda.bulkhead.in-flight").gauge().value()).isZero());
+    }
+
+    @Test
+    @DisplayName("Exhausted hedge budget waits for the slow attempt")
+    void execute_NoHedgeBudget_ReturnsPrimaryResponse() {
+        requestHedger = createHedger(0.0);
+        warmUp();
+
+        String result = requestHedger.execute(this::firstAttemptSlow);
+
+        assertThat(result).isEqualTo("attempt-1");
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.get("fda.hedging.requests").tag("outcome", "skipped")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No hedge is sent before enough latencies are recorded")
+    void execute_NotEnoughSamples_DoesNotHedge() {
+        requestHedger = createHedger(1.0);
+
+        String result = requestHedger.execute(this::firstAttemptSlow);
+
+        assertThat(result).isEqualTo("attempt-1");
+        assertThat(attempts).hasValue(1);
+    }
+
+    private FdaRequestHedger createHedger(double maxHedgeRate) {
+        return new FdaRequestHedger(new FdaHedgingProperties(true, 0.95, Duration.ofMillis(50),
+                maxHedgeRate, 100, MINIMUM_SAMPLES, 4), rateLimiter,
+                new ExecutorFactory(new StandardEnvironment()), meterRegistry);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < MINIMUM_SAMPLES; i++) {
+            requestHedger.execute(() -> "warm-up");
+        }
+    }
+
+    // Like a blocking socket read, the first attempt ignores interrupts and ends on an abort
+    private String firstAttemptBlocksUntilAborted() {
+        int attempt = attempts.incrementAndGet();
+        if (attempt == 1) {
+            CountDownLatch aborted = new CountDownLatch(1);
+            FdaAttempt.register(() -> {
+                aborted.countDown();
+                return true;
+            });
+            long deadline = System.nanoTime() + SLOW_RESPONSE.toNanos();
+            while (aborted.getCount() > 0 && System.nanoTime() < deadline) {
+                try {
+                    aborted.await(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException expected) {
+                    // Ignored, as a blocking socket read would
+                }
+            }
+        }
+
+        return "attempt-" + attempt;
+    }
+
+    private String firstAttemptSlow() {
+        int attempt = attempts.incrementAndGet();
+        if (attempt == 1) {
+            try {
+                Thread.sleep(SLOW_RESPONSE.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return "attempt-" + attempt;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.medrecordsapi.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.medrecordsapi.config.FdaRetryProperties;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+@ExtendWith(MockitoExtension.class)
+public class FdaRequestSchedulerTest {
+
+    @Mock
+    private FdaRateLimiter rateLimiter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private FdaRequestScheduler requestScheduler;
+
+    @BeforeEach
+    void setup() {
+        requestScheduler = new FdaRequestScheduler(new FdaRetryProperties(3,
+                Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(1)),
+                rateLimiter, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Server error is retried until the call succeeds")
+    void execute_ServerErrorThenSuccess_ReturnsResult() {
+        String result = requestScheduler.execute(FdaRequestPriority.INTERACTIVE, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Unavailable", HttpHeaders.EMPTY, null, null);
+            }
+            return "response";
+        });
+
+        assertThat(result).isEqualTo("response");
+        verify(rateLimiter, times(3)).acquire(FdaRequestPriority.INTERACTIVE);
+        assertThat(meterRegistry.get("fda.retries").tag("reason", "server_error")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Persistent 429 is reported as throttled and pauses the limiter")
+    void execute_PersistentThrottling_ThrowsThrottledException() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "0");
+
+        assertThatThrownBy(() -> requestScheduler.execute(FdaRequestPriority.BATCH, () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too Many Requests", headers, null, null);
+        })).isInstanceOf(FdaApiThrottledException.class);
+
+        assertThat(calls).hasValue(3);
+        verify(rateLimiter, times(3)).onThrottled(Duration.ZERO);
+        assertThat(meterRegistry.get("fda.requests").tag("outcome", "throttled")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Retry-After beyond the limit is not waited for")
+    void execute_LongRetryAfter_FailsWithoutRetry() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "120");
+
+        assertThatThrownBy(() -> requestScheduler.execute(FdaRequestPriority.INTERACTIVE, () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too Many Requests", headers, null, null);
+        })).isInstanceOf(FdaApiThrottledException.class)
+                .extracting(e -> ((FdaApiThrottledException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(120));
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Client errors other than 429 are passed on without retry")
+    void execute_NotFound_ThrowsOriginalException() {
+        assertThatThrownBy(() -> requestScheduler.execute(FdaRequestPriority.INTERACTIVE, () -> {
+            calls.incrementAndGet();
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found",
+                    HttpHeaders.EMPTY, null, null);
+        })).isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        assertThat(calls).hasValue(1);
+        verify(rateLimiter, never()).onThrottled(Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Call rejected by the bulkhead gives its rate limiter token back")
+    void execute_BulkheadFull_RefundsToken() {
+        assertThatThrownBy(() -> requestScheduler.execute(FdaRequestPriority.INTERACTIVE, () -> {
+            calls.incrementAndGet();
+            throw new ServiceOverloadedException("Too many concurrent openFDA calls");
+        })).isInstanceOf(ServiceOverloadedException.class);
+
+        assertThat(calls).hasValue(1);
+        verify(rateLimiter).acquire(FdaRequestPriority.INTERACTIVE);
+        verify(rateLimiter).refund();
+    }
+
+    @Test
+    @DisplayName("Exhausted server error retries are reported as unavailable")
+    void execute_PersistentServerError_ThrowsUnavailableException() {
+        assertThatThrownBy(() -> requestScheduler.execute(FdaRequestPriority.INTERACTIVE, () -> {
+            throw HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway",
+                    HttpHeaders.EMPTY, null, null);
+        })).isInstanceOf(FdaApiUnavailableException.class);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.medrecordsapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.config.FdaSearchIndexProperties;
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import com.example.medrecordsapi.repository.DrugSearchDocumentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrugSearchIndexTest {
+
+    private static final String RESPONSE = """
+            {
+              "results": [
+                {
+                  "application_number": "NDA000001",
+                  "openfda": {
+                    "manufacturer_name": ["Pfizerlab Div"],
+                    "brand_name": ["LIPITOR"]
+                  }
+                },
+                {
+                  "application_number": "NDA000002",
+                  "openfda": {
+                    "manufacturer_name": ["Pfizer Inc"],
+                    "brand_name": ["ZOLOFT"]
+                  }
+                },
+                {
+                  "application_number": "NDA000003",
+                  "openfda": {
+                    "manufacturer_name": ["Pfizer Pharmaceuticals"],
+                    "brand_name": ["LIPOFEN"]
+                  }
+                }
+              ]
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DrugSearchDocumentRepository documentRepository =
+            mock(DrugSearchDocumentRepository.class);
+    private final Map<String, DrugSearchDocument> storedDocuments = new HashMap<>();
+    private DrugSearchIndex drugSearchIndex;
+
+    @BeforeEach
+    void setup() throws Exception {
+        drugSearchIndex = createIndex(true);
+        load(drugSearchIndex);
+    }
+
+    @Test
+    @DisplayName("Exact matches rank before prefix matches")
+    void search_PrefixQuery_ReturnsScoredResults() {
+        JsonNode response = drugSearchIndex.search("pfizer", null, 1, 10).orElseThrow();
+
+        assertThat(response.path("meta").path("results").path("total").asInt()).isEqualTo(3);
+        assertThat(applicationNumbers(response))
+                .containsExactly("NDA000002", "NDA000003", "NDA000001");
+    }
+
+    @Test
+    @DisplayName("Brand name narrows the result and tolerates typos")
+    void search_FuzzyBrandName_ReturnsMatchingResult() {
+        JsonNode response = drugSearchIndex.search("pfiz", "liptor", 1, 10).orElseThrow();
+
+        assertThat(applicationNumbers(response)).containsExactly("NDA000001");
+    }
+
+    @Test
+    @DisplayName("Typos in the first two characters are not corrected")
+    void search_TypoInPrefix_ReturnsEmpty() {
+        assertThat(drugSearchIndex.search("pfizer", "lpitor", 1, 10)).isEmpty();
+        assertThat(drugSearchIndex.search("pfizer", "zolaft", 1, 10)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Pagination skips ranked results")
+    void search_SecondPage_ReturnsRemainingResults() {
+        JsonNode response = drugSearchIndex.search("pf", null, 2, 2).orElseThrow();
+
+        assertThat(response.path("meta").path("results").path("total").asInt()).isEqualTo(3);
+        assertThat(applicationNumbers(response)).containsExactly("NDA000001");
+        // Only the results of the requested page are loaded
+        verify(documentRepository).findAllById(List.of("NDA000001"));
+    }
+
+    @Test
+    @DisplayName("Reindexed document replaces its previous terms")
+    void indexAll_ExistingApplicationNumber_ReplacesDocument() throws Exception {
+        index(drugSearchIndex, List.of(objectMapper.readTree("""
+                {"application_number": "NDA000002", "openfda": {"manufacturer_name": ["Viatris"]}}
+                """)));
+
+        assertThat(drugSearchIndex.size()).isEqualTo(3);
+        assertThat(drugSearchIndex.search("viatris", null, 1, 10)).isPresent();
+        assertThat(applicationNumbers(drugSearchIndex.search("pfizer", null, 1, 10)
+                .orElseThrow())).containsExactly("NDA000003", "NDA000001");
+    }
+
+    @Test
+    @DisplayName("Restored index answers from the stored documents")
+    void restore_StoredDocuments_IndexesTheirTerms() {
+        List<DrugSearchDocument> names = storedDocuments.values().stream()
+                .map(stored -> new DrugSearchDocument(stored.getApplicationNumber(),
+                        stored.getManufacturerNames(), stored.getBrandNames(), null))
+                .toList();
+        when(documentRepository.streamNames(anyInt())).thenReturn(names.stream());
+        DrugSearchIndex restoredIndex = new DrugSearchIndex(
+                new FdaSearchIndexProperties(true, true, 1, 4), documentRepository,
+                objectMapper, new SimpleMeterRegistry());
+
+        assertThat(restoredIndex.restore()).isEqualTo(3);
+        restoredIndex.markLoaded();
+
+        JsonNode response = restoredIndex.search("pfizer", "zoloft", 1, 10).orElseThrow();
+        assertThat(applicationNumbers(response)).containsExactly("NDA000002");
+    }
+
+    @Test
+    @DisplayName("Index without a completed load never answers searches")
+    void search_IndexNotLoaded_ReturnsEmpty() throws Exception {
+        drugSearchIndex = createIndex(true);
+        index(drugSearchIndex, objectMapper.readTree(RESPONSE).path("results"));
+
+        assertThat(drugSearchIndex.search("pfizer", null, 1, 10)).isEmpty();
+        assertThat(drugSearchIndex.isLocalOnly()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Disabled index never answers searches")
+    void search_IndexDisabled_ReturnsEmpty() throws Exception {
+        drugSearchIndex = createIndex(false);
+        load(drugSearchIndex);
+
+        assertThat(drugSearchIndex.search("pfizer", null, 1, 10)).isEmpty();
+        assertThat(drugSearchIndex.isLoaded()).isFalse();
+    }
+
+    private void load(DrugSearchIndex index) throws Exception {
+        index(index, objectMapper.readTree(RESPONSE).path("results"));
+        index.markLoaded();
+    }
+
+    private void index(DrugSearchIndex index, Iterable<JsonNode> results) {
+        List<DrugSearchDocument> searchDocuments = new ArrayList<>();
+        results.forEach(result ->
+                index.toDocument(result).ifPresent(searchDocuments::add));
+        index.indexAll(searchDocuments);
+    }
+
+    private DrugSearchIndex createIndex(boolean enabled) {
+        storedDocuments.clear();
+        doAnswer(invocation -> {
+            List<DrugSearchDocument> searchDocuments = invocation.getArgument(0);
+            searchDocuments.forEach(searchDocument -> storedDocuments.put(
+                    searchDocument.getApplicationNumber(), searchDocument));
+            return null;
+        }).when(documentRepository).replaceAll(anyList());
+        when(documentRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<DrugSearchDocument> found = new ArrayList<>();
+            Iterable<String> applicationNumbers = invocation.getArgument(0);
+            applicationNumbers.forEach(number -> {
+                if (storedDocuments.containsKey(number)) {
+                    found.add(storedDocuments.get(number));
+                }
+            });
+            return found;
+        });
+
+        return new DrugSearchIndex(new FdaSearchIndexProperties(enabled, true, 1, 4),
+                documentRepository, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private List<String> applicationNumbers(JsonNode response) {
+        List<String> applicationNumbers = new ArrayList<>();
+        response.path("results").forEach(result ->
+                applicationNumbers.add(result.path("application_number").asText()));
+
+        return applicationNumbers;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.medrecordsapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaSearchSnapshotProperties;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.search.SearchSnapshotCache.SearchQuery;
+import com.example.medrecordsapi.search.SearchSnapshotCache.Snapshot;
+import com.example.medrecordsapi.service.DrugRecordService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.unit.DataSize;
+
+@ExtendWith(MockitoExtension.class)
+public class SearchSnapshotCacheTest {
+
+    private static final SearchQuery HOT_QUERY = new SearchQuery("pfizer", null, 1, 10);
+    private static final SearchQuery COLD_QUERY = new SearchQuery("bayer", null, 1, 10);
+    private static final String RESPONSE = "{\"results\":[{\"application_number\":\"NDA000001\"}]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private DrugRecordService drugRecordService;
+
+    private SearchSnapshotCache snapshotCache;
+
+    @BeforeEach
+    void setup() {
+        snapshotCache = new SearchSnapshotCache(new FdaSearchSnapshotProperties(true, 10, 100, 3,
+                Duration.ofMinutes(1), DataSize.ofKilobytes(512)), drugRecordService,
+                objectMapper, new ExecutorFactory(new StandardEnvironment()),
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshotCache.shutdown();
+    }
+
+    @Test
+    @DisplayName("Hot search gets a snapshot with identity and gzip bodies")
+    void rebuild_HotSearch_ServesSnapshot() throws Exception {
+        when(drugRecordService.searchDrugRecords("pfizer", null, 1, 10,
+                FdaRequestPriority.BATCH))
+                .thenReturn(objectMapper.readTree(RESPONSE));
+        lookup(HOT_QUERY, 3);
+        lookup(COLD_QUERY, 1);
+
+        snapshotCache.rebuild();
+
+        Snapshot snapshot = snapshotCache.lookup(HOT_QUERY).orElseThrow();
+        assertThat(snapshot.body()).isEqualTo(RESPONSE.getBytes());
+        assertThat(gunzip(snapshot.gzipBody())).isEqualTo(snapshot.body());
+        assertThat(snapshot.etag()).startsWith("\"").isNotEqualTo(snapshot.gzipEtag());
+        assertThat(snapshotCache.lookup(COLD_QUERY)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Unchanged result keeps its ETag across rebuilds")
+    void rebuild_UnchangedResult_KeepsSnapshot() throws Exception {
+        when(drugRecordService.searchDrugRecords("pfizer", null, 1, 10,
+                FdaRequestPriority.BATCH))
+                .thenReturn(objectMapper.readTree(RESPONSE));
+        lookup(HOT_QUERY, 3);
+        snapshotCache.rebuild();
+        Snapshot first = snapshotCache.lookup(HOT_QUERY).orElseThrow();
+        lookup(HOT_QUERY, 3);
+
+        snapshotCache.rebuild();
+
+        assertThat(snapshotCache.lookup(HOT_QUERY)).containsSame(first);
+        verify(drugRecordService, times(2)).searchDrugRecords("pfizer", null, 1, 10,
+                FdaRequestPriority.BATCH);
+    }
+
+    private void lookup(SearchQuery query, int times) {
+        for (int i = 0; i < times; i++) {
+            snapshotCache.lookup(query);
+        }
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
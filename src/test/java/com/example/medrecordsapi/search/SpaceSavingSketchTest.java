@@ -0,0 +1,58 @@
+package com.example.medrecordsapi.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    @DisplayName("Heavy hitters are kept while a long tail of single keys passes through")
+    void top_SkewedStream_ReturnsHeavyHitters() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer("pfizer");
+            if (i % 2 == 0) {
+                sketch.offer("bayer");
+            }
+            sketch.offer("tail-" + i);
+        }
+
+        assertThat(sketch.top(2, 100)).containsExactly("pfizer", "bayer");
+        assertThat(sketch.top(10, 100)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Decay halves counts so that a key that is no longer requested drops out")
+    void decay_StaleKey_LosesItsPlace() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+        for (int i = 0; i < 8; i++) {
+            sketch.offer("old");
+        }
+
+        sketch.decay();
+        sketch.decay();
+        for (int i = 0; i < 3; i++) {
+            sketch.offer("new");
+        }
+
+        assertThat(sketch.count("old")).isEqualTo(2);
+        assertThat(sketch.top(1, 1)).containsExactly("new");
+    }
+
+    @Test
+    @DisplayName("Weighted offer counts like the same number of single offers")
+    void offer_Weighted_AddsCount() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+        sketch.offer("pfizer", 5);
+        sketch.offer("bayer", 2);
+        sketch.offer("pfizer");
+
+        sketch.offer("merck", 3);
+
+        assertThat(sketch.count("pfizer")).isEqualTo(6);
+        assertThat(sketch.count("merck")).isEqualTo(5);
+        assertThat(sketch.top(2, 4)).containsExactly("pfizer");
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.medrecordsapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    @DisplayName("Inserted values are always found")
+    void mightContain_InsertedValues_ReturnsTrue() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        String[] values = IntStream.range(0, INSERTIONS)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toArray(String[]::new);
+
+        for (String value : values) {
+            filter.put(value);
+        }
+
+        assertThat(values).allMatch(filter::mightContain);
+    }
+
+    @Test
+    @DisplayName("False positive rate stays near the configured rate")
+    void mightContain_UnknownValues_RespectsFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        IntStream.range(0, INSERTIONS).forEach(i -> filter.put("revoked-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("valid-" + i))
+                .count();
+
+        assertThat(falsePositives / 100_000.0).isLessThan(FALSE_POSITIVE_RATE * 2);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.medrecordsapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import com.example.medrecordsapi.exception.custom.ServiceOverloadedException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class BoundedPasswordEncoderTest {
+
+    private static final String PASSWORD = "password123";
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Encoded password matches on the hashing pool")
+    void matches_EncodedPassword_ReturnsTrue() {
+        BoundedPasswordEncoder encoder =
+                new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor);
+
+        String encoded = encoder.encode(PASSWORD);
+
+        assertThat(encoded).startsWith("$2a$04$");
+        assertThat(encoder.matches(PASSWORD, encoded)).isTrue();
+        assertThat(encoder.matches("wrong", encoded)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Saturated hashing pool rejects further work")
+    void encode_PoolSaturated_ThrowsException() {
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder =
+                new BoundedPasswordEncoder(blockingEncoder(release), executor);
+        final CompletableFuture<String> running = CompletableFuture.supplyAsync(
+                () -> encoder.encode(PASSWORD));
+        await().until(() -> executor.getActiveCount() == 1);
+        final CompletableFuture<String> queued = CompletableFuture.supplyAsync(
+                () -> encoder.encode(PASSWORD));
+        await().until(() -> executor.getQueue().size() == 1);
+
+        assertThatThrownBy(() -> encoder.encode(PASSWORD))
+                .isInstanceOf(ServiceOverloadedException.class);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo(PASSWORD);
+        assertThat(queued.join()).isEqualTo(PASSWORD);
+    }
+
+    private PasswordEncoder blockingEncoder(CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.medrecordsapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.config.JwtPrincipalProperties;
+import com.example.medrecordsapi.config.JwtPrincipalProperties.PrincipalSource;
+import com.example.medrecordsapi.model.Role;
+import com.example.medrecordsapi.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtPrincipalResolverTest {
+
+    private static final String EMAIL = "john@example.com";
+    private static final List<String> ROLES = List.of("ROLE_USER");
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Test
+    @DisplayName("Cached principal is loaded once per user regardless of case")
+    void resolve_CacheSource_LoadsUserOnce() {
+        stubUser();
+        JwtPrincipalResolver resolver = createResolver(PrincipalSource.CACHE);
+
+        resolver.resolve(EMAIL, ROLES);
+        UserDetails principal = resolver.resolve("John@Example.com", ROLES);
+
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        assertThat(principal.getPassword()).isEmpty();
+        assertThat(AuthorityUtils.authorityListToSet(principal.getAuthorities()))
+                .containsExactly("ROLE_USER");
+        verify(userDetailsService, times(1)).loadUserByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("Evicted principal is loaded again")
+    void evict_CachedPrincipal_ReloadsUser() {
+        stubUser();
+        JwtPrincipalResolver resolver = createResolver(PrincipalSource.CACHE);
+        resolver.resolve(EMAIL, ROLES);
+
+        resolver.evict(EMAIL);
+        resolver.resolve(EMAIL, ROLES);
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Claims source builds the principal without loading the user")
+    void resolve_ClaimsSource_DoesNotLoadUser() {
+        JwtPrincipalResolver resolver = createResolver(PrincipalSource.CLAIMS);
+
+        UserDetails principal = resolver.resolve(EMAIL, ROLES);
+
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        assertThat(AuthorityUtils.authorityListToSet(principal.getAuthorities()))
+                .containsExactly("ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Token without roles claim falls back to loading the user")
+    void resolve_ClaimsSourceWithoutRoles_LoadsUser() {
+        stubUser();
+        JwtPrincipalResolver resolver = createResolver(PrincipalSource.CLAIMS);
+
+        UserDetails principal = resolver.resolve(EMAIL, null);
+
+        assertThat(principal.getUsername()).isEqualTo(EMAIL);
+        verify(userDetailsService).loadUserByUsername(EMAIL);
+    }
+
+    private void stubUser() {
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(
+                new User("1", EMAIL, "hash", "John", "Doe", Role.USER));
+    }
+
+    private JwtPrincipalResolver createResolver(PrincipalSource source) {
+        return new JwtPrincipalResolver(
+                new JwtPrincipalProperties(source, Duration.ofMinutes(1), 100),
+                userDetailsService, new SimpleMeterRegistry());
+    }
+}
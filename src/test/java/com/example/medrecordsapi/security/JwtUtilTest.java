@@ -0,0 +1,72 @@
+package com.example.medrecordsapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.medrecordsapi.config.JwtVerificationProperties;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class JwtUtilTest {
+
+    private static final String SECRET = "superLong12345AndStrong12345SecretString";
+    private static final String EMAIL = "john@example.com";
+
+    @Test
+    @DisplayName("Subject, roles and expiry are read from one verification")
+    void verify_ValidToken_ReturnsClaims() {
+        JwtUtil jwtUtil = createJwtUtil(60, false);
+        String token = jwtUtil.generateToken(EMAIL,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        VerifiedToken verifiedToken = jwtUtil.verify(token);
+
+        assertThat(verifiedToken.tokenId()).isNotBlank();
+        assertThat(verifiedToken.username()).isEqualTo(EMAIL);
+        assertThat(verifiedToken.roles()).isEqualTo(List.of("ROLE_USER"));
+        assertThat(verifiedToken.expiresAt()).isInTheFuture();
+    }
+
+    @Test
+    @DisplayName("Repeated verification of the same token is served from the cache")
+    void verify_CachedToken_ReturnsSameResult() {
+        JwtUtil jwtUtil = createJwtUtil(60, true);
+        String token = jwtUtil.generateToken(EMAIL, List.of());
+
+        assertThat(jwtUtil.verify(token)).isSameAs(jwtUtil.verify(token));
+    }
+
+    @Test
+    @DisplayName("Tampered token is rejected even after the original was cached")
+    void verify_TamperedToken_ThrowsException() {
+        JwtUtil jwtUtil = createJwtUtil(60, true);
+        String token = jwtUtil.generateToken(EMAIL, List.of());
+        jwtUtil.verify(token);
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1)
+                + new StringBuilder(signature).reverse();
+
+        assertThatThrownBy(() -> jwtUtil.verify(tampered))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    @DisplayName("Expired token is rejected")
+    void verify_ExpiredToken_ThrowsException() {
+        JwtUtil jwtUtil = createJwtUtil(-1, true);
+        String token = jwtUtil.generateToken(EMAIL, List.of());
+
+        assertThatThrownBy(() -> jwtUtil.verify(token))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private JwtUtil createJwtUtil(long expirationMinutes, boolean cacheEnabled) {
+        return new JwtUtil(SECRET, expirationMinutes,
+                new JwtVerificationProperties(cacheEnabled, 100), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.medrecordsapi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.config.JwtRevocationProperties;
+import com.example.medrecordsapi.model.RevokedToken;
+import com.example.medrecordsapi.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+    private static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final MutableClock clock = new MutableClock();
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setup() {
+        revocationList = new TokenRevocationList(
+                new JwtRevocationProperties(Duration.ofSeconds(10), OVERLAP,
+                        Duration.ofHours(1), 1000, 0.001),
+                revokedTokenRepository, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    @DisplayName("Before the first load every token is checked in the collection")
+    void isRevoked_NotLoaded_ChecksRepository() {
+        when(revokedTokenRepository.existsById("token-1")).thenReturn(true);
+
+        assertThat(revocationList.isRevoked("token-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Tokens missing from the filter are accepted without I/O")
+    void isRevoked_NotInFilter_SkipsRepository() {
+        when(revokedTokenRepository.findByExpiresAtAfter(NOW))
+                .thenReturn(List.of(revoked("token-1")));
+        when(revokedTokenRepository.existsById("token-1")).thenReturn(true);
+        revocationList.refresh();
+
+        assertThat(revocationList.isRevoked("token-2")).isFalse();
+        assertThat(revocationList.isRevoked("token-1")).isTrue();
+        verify(revokedTokenRepository, never()).existsById("token-2");
+    }
+
+    @Test
+    @DisplayName("Refresh picks up tokens revoked by another instance")
+    void refresh_RevokedElsewhere_AddsToFilter() {
+        when(revokedTokenRepository.findByExpiresAtAfter(NOW)).thenReturn(List.of());
+        revocationList.refresh();
+        clock.advance(Duration.ofSeconds(10));
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqual(NOW.minus(OVERLAP)))
+                .thenReturn(List.of(revoked("token-1")));
+        when(revokedTokenRepository.existsById("token-1")).thenReturn(true);
+
+        revocationList.refresh();
+
+        assertThat(revocationList.isRevoked("token-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Filter is rebuilt once the rebuild interval passed")
+    void refresh_RebuildIntervalPassed_RebuildsFilter() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        revocationList.refresh();
+        clock.advance(Duration.ofHours(1));
+
+        revocationList.refresh();
+
+        verify(revokedTokenRepository, times(2)).findByExpiresAtAfter(any());
+        verify(revokedTokenRepository, never()).findByRevokedAtGreaterThanEqual(any());
+    }
+
+    @Test
+    @DisplayName("Token revoked on this instance is rejected right away")
+    void revoke_LoadedFilter_RejectsToken() {
+        when(revokedTokenRepository.findByExpiresAtAfter(NOW)).thenReturn(List.of());
+        revocationList.refresh();
+        when(revokedTokenRepository.existsById("token-1")).thenReturn(true);
+
+        revocationList.revoke("token-1", NOW.plusSeconds(60));
+
+        assertThat(revocationList.isRevoked("token-1")).isTrue();
+        verify(revokedTokenRepository).save(new RevokedToken("token-1", NOW,
+                NOW.plusSeconds(60)));
+    }
+
+    private RevokedToken revoked(String tokenId) {
+        return new RevokedToken(tokenId, NOW.minusSeconds(5), NOW.plusSeconds(3600));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now = NOW;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.example.medrecordsapi.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -11,6 +10,10 @@ import com.example.medrecordsapi.dto.user.UserLoginRequestDto;
 import com.example.medrecordsapi.dto.user.UserLoginResponseDto;
 import com.example.medrecordsapi.security.AuthenticationService;
 import com.example.medrecordsapi.security.JwtUtil;
+import com.example.medrecordsapi.security.TokenRevocationList;
+import com.example.medrecordsapi.security.VerifiedToken;
+import java.time.Instant;
+import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +24,8 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthenticationServiceTest {
@@ -31,6 +36,9 @@ public class AuthenticationServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenRevocationList revocationList;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -42,17 +50,18 @@ public class AuthenticationServiceTest {
         String password = "password123";
         UserLoginRequestDto requestDto = new UserLoginRequestDto(email, password);
 
-        Authentication authentication = mock(Authentication.class);
-        when(authentication.getName()).thenReturn(email);
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        Authentication authentication =
+                new UsernamePasswordAuthenticationToken(email, null, authorities);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtil.generateToken(email)).thenReturn(token);
+        when(jwtUtil.generateToken(email, authorities)).thenReturn(token);
 
         UserLoginResponseDto response = authenticationService.authenticate(requestDto);
 
         assertThat(response.token()).isEqualTo(token);
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtil).generateToken(email);
+        verify(jwtUtil).generateToken(email, authorities);
     }
 
     @Test
@@ -69,4 +78,18 @@ public class AuthenticationServiceTest {
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
     }
+
+    @Test
+    @DisplayName("Test logout revokes the token of the request")
+    void logout_AuthenticatedWithToken_RevokesToken() {
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("valid@example.com", null, List.of());
+        authentication.setDetails(new VerifiedToken("token-id", "valid@example.com",
+                List.of(), expiresAt));
+
+        authenticationService.logout(authentication);
+
+        verify(revocationList).revoke("token-id", expiresAt);
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.medrecordsapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.config.FdaExportProperties;
+import com.example.medrecordsapi.mapper.DrugRecordMapper;
+import com.example.medrecordsapi.mapper.impl.DrugRecordMapperImpl;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.service.impl.DrugRecordExportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class DrugRecordExportServiceTest {
+
+    private static final int CURSOR_BATCH_SIZE = 100;
+
+    @Mock
+    private DrugRecordRepository drugRecordRepository;
+
+    @Spy
+    private DrugRecordMapper drugRecordMapper = new DrugRecordMapperImpl();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private FdaExportProperties properties = new FdaExportProperties(CURSOR_BATCH_SIZE, 1);
+
+    @InjectMocks
+    private DrugRecordExportServiceImpl drugRecordExportService;
+
+    @Test
+    @DisplayName("Every record is written on its own line and the cursor is closed")
+    void exportDrugRecords_RecordsExist_WritesNdjson() throws Exception {
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        when(drugRecordRepository.streamAll(CURSOR_BATCH_SIZE)).thenReturn(Stream.of(
+                new DrugRecord("12345", "Pfizer", "Paracetamol", List.of("123")),
+                new DrugRecord("54321", "Bayer", "Aspirin", List.of()))
+                .onClose(() -> cursorClosed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long exported = drugRecordExportService.exportDrugRecords(outputStream);
+
+        assertThat(exported).isEqualTo(2);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"applicationNumber":"12345","manufacturerName":"Pfizer",\
+                "substanceName":"Paracetamol","productNumbers":["123"]}
+                {"applicationNumber":"54321","manufacturerName":"Bayer",\
+                "substanceName":"Aspirin","productNumbers":[]}
+                """);
+        assertThat(cursorClosed).isTrue();
+        verify(drugRecordRepository).streamAll(CURSOR_BATCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("Empty collection writes nothing")
+    void exportDrugRecords_NoRecords_WritesNothing() throws Exception {
+        when(drugRecordRepository.streamAll(CURSOR_BATCH_SIZE)).thenReturn(Stream.empty());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertThat(drugRecordExportService.exportDrugRecords(outputStream)).isZero();
+        assertThat(outputStream.size()).isZero();
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.medrecordsapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.cache.DrugRecordCache;
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaIngestProperties;
+import com.example.medrecordsapi.dto.ingest.IngestStatusDto;
+import com.example.medrecordsapi.dto.ingest.IngestStatusDto.IngestState;
+import com.example.medrecordsapi.exception.custom.IngestInProgressException;
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.model.DrugSearchDocument;
+import com.example.medrecordsapi.model.IngestCheckpoint;
+import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.repository.IngestCheckpointRepository;
+import com.example.medrecordsapi.search.DrugSearchIndex;
+import com.example.medrecordsapi.service.impl.DrugRecordIngestServiceImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.StandardEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+public class DrugRecordIngestServiceTest {
+
+    private static final String SOURCE_FILE = "drug-drugsfda-test.json.zip";
+    private static final int RECORD_COUNT = 5;
+
+    @Mock
+    private DrugRecordRepository drugRecordRepository;
+
+    @Mock
+    private IngestCheckpointRepository checkpointRepository;
+
+    @Mock
+    private DrugSearchIndex drugSearchIndex;
+
+    @Mock
+    private DrugRecordCache drugRecordCache;
+
+    @TempDir
+    private Path tempDir;
+
+    private DrugRecordIngestServiceImpl ingestService;
+
+    @BeforeEach
+    void setup() throws Exception {
+        Path source = tempDir.resolve(SOURCE_FILE);
+        writeBulkFile(source);
+        ObjectMapper objectMapper = new ObjectMapper();
+        ingestService = new DrugRecordIngestServiceImpl(
+                new FdaIngestProperties(source.toString(), 2, 2), drugRecordRepository,
+                checkpointRepository, new FdaDrugRecordExtractor(objectMapper), drugSearchIndex,
+                drugRecordCache, objectMapper, new ExecutorFactory(new StandardEnvironment()));
+    }
+
+    @Test
+    @DisplayName("All results are written in batches and the checkpoint is completed")
+    void startIngest_NoCheckpoint_WritesAllRecords() {
+        when(checkpointRepository.findById(SOURCE_FILE)).thenReturn(Optional.empty());
+
+        ingestService.startIngest();
+
+        IngestStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(IngestState.COMPLETED);
+        assertThat(status.total()).isEqualTo(RECORD_COUNT);
+        assertThat(status.committedOffset()).isEqualTo(RECORD_COUNT);
+        assertThat(status.recordsWritten()).isEqualTo(RECORD_COUNT);
+        ArgumentCaptor<List<DrugRecord>> batches = ArgumentCaptor.captor();
+        verify(drugRecordRepository, times(3)).upsertAll(batches.capture());
+        assertThat(batches.getAllValues()).flatMap(batch -> batch)
+                .hasSize(RECORD_COUNT)
+                .contains(new DrugRecord("NDA000003", "Manufacturer 3", "SUBSTANCE 3",
+                        List.of("0000-0003")));
+        ArgumentCaptor<IngestCheckpoint> checkpoint =
+                ArgumentCaptor.forClass(IngestCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(checkpoint.capture());
+        assertThat(checkpoint.getValue().isCompleted()).isTrue();
+        verify(drugSearchIndex).markLoaded();
+    }
+
+    @Test
+    @DisplayName("Ingest resumes after the committed offset")
+    void startIngest_UnfinishedCheckpoint_SkipsCommittedRecords() throws Exception {
+        when(checkpointRepository.findById(SOURCE_FILE)).thenReturn(Optional.of(
+                new IngestCheckpoint(SOURCE_FILE, fingerprint(), 4, false, Instant.now())));
+
+        ingestService.startIngest();
+
+        IngestStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(IngestState.COMPLETED);
+        assertThat(status.resumedFromOffset()).isEqualTo(4);
+        assertThat(status.recordsWritten()).isEqualTo(1);
+        verify(drugRecordRepository).upsertAll(List.of(new DrugRecord("NDA000005",
+                "Manufacturer 5", "SUBSTANCE 5", List.of("0000-0005"))));
+        verify(drugSearchIndex, never()).markLoaded();
+    }
+
+    @Test
+    @DisplayName("Ingest starts over when the file changed since the checkpoint")
+    void startIngest_CheckpointOfOtherFile_WritesAllRecords() {
+        when(checkpointRepository.findById(SOURCE_FILE)).thenReturn(Optional.of(
+                new IngestCheckpoint(SOURCE_FILE, "1:1", 4, false, Instant.now())));
+
+        ingestService.startIngest();
+
+        IngestStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(IngestState.COMPLETED);
+        assertThat(status.resumedFromOffset()).isZero();
+        assertThat(status.recordsWritten()).isEqualTo(RECORD_COUNT);
+        verify(drugSearchIndex).markLoaded();
+    }
+
+    @Test
+    @DisplayName("Results are indexed only once their batch is written")
+    void startIngest_FailedBatchWrite_DoesNotIndexBatch() {
+        when(checkpointRepository.findById(SOURCE_FILE)).thenReturn(Optional.empty());
+        when(drugSearchIndex.isEnabled()).thenReturn(true);
+        when(drugSearchIndex.toDocument(any())).thenAnswer(invocation -> {
+            JsonNode result = invocation.getArgument(0);
+            return Optional.of(new DrugSearchDocument(
+                    result.path("application_number").asText(), List.of(), List.of(), "{}"));
+        });
+        doAnswer(invocation -> {
+            List<DrugRecord> batch = invocation.getArgument(0);
+            if (batch.get(0).getApplicationNumber().equals("NDA000003")) {
+                throw new IllegalStateException("write failed");
+            }
+            return null;
+        }).when(drugRecordRepository).upsertAll(anyList());
+
+        ingestService.startIngest();
+
+        IngestStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(IngestState.FAILED);
+        ArgumentCaptor<List<DrugSearchDocument>> indexed = ArgumentCaptor.captor();
+        verify(drugSearchIndex, atLeastOnce()).indexAll(indexed.capture());
+        assertThat(indexed.getAllValues()).flatMap(batch -> batch)
+                .extracting(DrugSearchDocument::getApplicationNumber)
+                .doesNotContain("NDA000003", "NDA000004");
+        verify(drugSearchIndex, never()).markLoaded();
+    }
+
+    @Test
+    @DisplayName("Search index is restored on startup and loaded after a completed ingest")
+    void restoreSearchIndex_CompletedCheckpoint_MarksIndexLoaded() throws Exception {
+        when(drugSearchIndex.isEnabled()).thenReturn(true);
+        when(checkpointRepository.findById(SOURCE_FILE)).thenReturn(Optional.of(
+                new IngestCheckpoint(SOURCE_FILE, fingerprint(), RECORD_COUNT, true,
+                        Instant.now())));
+
+        ingestService.restoreSearchIndex();
+
+        verify(drugSearchIndex, timeout(5000)).markLoaded();
+        verify(drugSearchIndex).restore();
+    }
+
+    @Test
+    @DisplayName("Resumed ingest loads the index once the stored documents were restored")
+    void startIngest_ResumedAfterRestore_MarksIndexLoaded() throws Exception {
+        when(checkpointRepository.findById(SOURCE_FILE)).thenReturn(Optional.of(
+                new IngestCheckpoint(SOURCE_FILE, fingerprint(), 4, false, Instant.now())));
+        when(drugSearchIndex.isEnabled()).thenReturn(true);
+        ingestService.restoreSearchIndex();
+
+        ingestService.startIngest();
+
+        assertThat(awaitFinished().state()).isEqualTo(IngestState.COMPLETED);
+        verify(drugSearchIndex).restore();
+        verify(drugSearchIndex).markLoaded();
+    }
+
+    @Test
+    @DisplayName("Missing file fails the ingest and a new one can be started")
+    void startIngest_MissingFile_FailsAndAllowsRestart() throws Exception {
+        when(checkpointRepository.findById(anyString())).thenReturn(Optional.empty());
+        Files.delete(tempDir.resolve(SOURCE_FILE));
+
+        ingestService.startIngest();
+
+        IngestStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(IngestState.FAILED);
+        assertThat(status.error()).contains(SOURCE_FILE);
+        assertThat(ingestService.startIngest().state()).isEqualTo(IngestState.RUNNING);
+        awaitFinished();
+    }
+
+    @Test
+    @DisplayName("Starting while an ingest runs is rejected")
+    void startIngest_AlreadyRunning_ThrowsException() {
+        when(checkpointRepository.findById(SOURCE_FILE)).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return Optional.empty();
+        });
+
+        ingestService.startIngest();
+
+        assertThatThrownBy(() -> ingestService.startIngest())
+                .isInstanceOf(IngestInProgressException.class);
+        awaitFinished();
+    }
+
+    private IngestStatusDto awaitFinished() {
+        await().until(() -> ingestService.getStatus().state() != IngestState.RUNNING);
+
+        return ingestService.getStatus();
+    }
+
+    private String fingerprint() throws Exception {
+        Path source = tempDir.resolve(SOURCE_FILE);
+
+        return Files.size(source) + ":" + Files.getLastModifiedTime(source).toMillis();
+    }
+
+    private void writeBulkFile(Path source) throws Exception {
+        StringBuilder json = new StringBuilder()
+                .append("{\"meta\": {\"results\": {\"skip\": 0, \"limit\": ")
+                .append(RECORD_COUNT).append(", \"total\": ").append(RECORD_COUNT)
+                .append("}}, \"results\": [");
+        for (int i = 1; i <= RECORD_COUNT; i++) {
+            json.append(i > 1 ? "," : "")
+                    .append("{\"submissions\": [{\"submission_type\": \"ORIG\"}], ")
+                    .append("\"application_number\": \"NDA00000").append(i).append("\", ")
+                    .append("\"openfda\": {\"manufacturer_name\": [\"Manufacturer ").append(i)
+                    .append("\"], \"substance_name\": [\"SUBSTANCE ").append(i)
+                    .append("\"], \"product_ndc\": [\"0000-000").append(i).append("\"]}}");
+        }
+        json.append("]}");
+
+        try (OutputStream fileStream = Files.newOutputStream(source);
+                ZipOutputStream zip = new ZipOutputStream(fileStream)) {
+            zip.putNextEntry(new ZipEntry("drug-drugsfda-0001-of-0001.json"));
+            zip.write(json.toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.medrecordsapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.medrecordsapi.cache.DrugRecordCache;
+import com.example.medrecordsapi.config.ExecutorFactory;
+import com.example.medrecordsapi.config.FdaRefreshProperties;
+import com.example.medrecordsapi.dto.refresh.RefreshStatusDto;
+import com.example.medrecordsapi.dto.refresh.RefreshStatusDto.RefreshState;
+import com.example.medrecordsapi.exception.custom.FdaApiUnavailableException;
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
+import com.example.medrecordsapi.model.DrugRecord;
+import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.service.impl.DrugRecordRefreshServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.StandardEnvironment;
+
+@ExtendWith(MockitoExtension.class)
+public class DrugRecordRefreshServiceTest {
+
+    private static final DrugRecord UNCHANGED = new DrugRecord("NDA000001", "Pfizer Inc",
+            "ATORVASTATIN", List.of("0071-0155"));
+    private static final DrugRecord CHANGED = new DrugRecord("NDA000002", "Bayer",
+            "ASPIRIN", List.of("0280-2000"));
+    private static final DrugRecord MISSING = new DrugRecord("NDA000003", "Merck",
+            "SIMVASTATIN", List.of("0006-0740"));
+    private static final String UPSTREAM_RESPONSE = """
+            {"results": [
+              {"application_number": "NDA000001", "openfda": {"manufacturer_name": ["Pfizer Inc"],
+                "substance_name": ["ATORVASTATIN"], "product_ndc": ["0071-0155"]}},
+              {"application_number": "NDA000002", "openfda": {"manufacturer_name": ["Bayer AG"],
+                "substance_name": ["ASPIRIN"], "product_ndc": ["0280-2000"]}}
+            ]}
+            """;
+
+    @Mock
+    private DrugRecordRepository drugRecordRepository;
+
+    @Mock
+    private FdaApiService fdaApiService;
+
+    @Mock
+    private DrugRecordCache drugRecordCache;
+
+    private DrugRecordRefreshServiceImpl refreshService;
+
+    @Test
+    @DisplayName("Only changed records are updated and the whole chunk is marked as checked")
+    void startRefresh_ChangedRecord_UpdatesOnlyChangedRecord() {
+        refreshService = createService(4);
+        when(drugRecordRepository.findLeastRecentlyChecked(any(Instant.class), eq(50)))
+                .thenReturn(List.of(UNCHANGED, CHANGED, MISSING), List.of());
+        when(fdaApiService.fetchFreshDrugData(eq(""), anyString(), eq(1), eq(3),
+                eq(FdaRequestPriority.BATCH))).thenReturn(UPSTREAM_RESPONSE);
+
+        refreshService.startRefresh();
+
+        RefreshStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(RefreshState.COMPLETED);
+        assertThat(status.recordsChecked()).isEqualTo(3);
+        assertThat(status.recordsUpdated()).isEqualTo(1);
+        assertThat(status.recordsMissing()).isEqualTo(1);
+        verify(drugRecordRepository).applyRefresh(
+                eq(List.of(new DrugRecord("NDA000002", "Bayer AG", "ASPIRIN",
+                        List.of("0280-2000")))),
+                eq(List.of("NDA000001", "NDA000003")), any(Instant.class));
+        verify(drugRecordCache).invalidateAll(List.of("NDA000002"));
+    }
+
+    @Test
+    @DisplayName("A run stops once its request budget is used")
+    void startRefresh_BudgetExhausted_StopsRun() {
+        refreshService = createService(2);
+        when(drugRecordRepository.findLeastRecentlyChecked(any(Instant.class), anyInt()))
+                .thenReturn(List.of(UNCHANGED));
+        when(fdaApiService.fetchFreshDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                any(FdaRequestPriority.class))).thenReturn(UPSTREAM_RESPONSE);
+
+        refreshService.startRefresh();
+
+        RefreshStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(RefreshState.COMPLETED);
+        assertThat(status.requests()).isEqualTo(2);
+        verify(fdaApiService, times(2)).fetchFreshDrugData(anyString(), anyString(), anyInt(),
+                anyInt(), any(FdaRequestPriority.class));
+    }
+
+    @Test
+    @DisplayName("Unavailable upstream ends the run without writing")
+    void startRefresh_UpstreamUnavailable_FailsRun() {
+        refreshService = createService(4);
+        when(drugRecordRepository.findLeastRecentlyChecked(any(Instant.class), anyInt()))
+                .thenReturn(List.of(UNCHANGED));
+        when(fdaApiService.fetchFreshDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                any(FdaRequestPriority.class)))
+                .thenThrow(new FdaApiUnavailableException("circuit open"));
+
+        refreshService.startRefresh();
+
+        RefreshStatusDto status = awaitFinished();
+        assertThat(status.state()).isEqualTo(RefreshState.FAILED);
+        assertThat(status.error()).contains("circuit open");
+        verify(drugRecordRepository, never()).applyRefresh(anyList(), anyList(),
+                any(Instant.class));
+    }
+
+    private DrugRecordRefreshServiceImpl createService(int maxRequestsPerRun) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return new DrugRecordRefreshServiceImpl(
+                new FdaRefreshProperties(true, Duration.ofMinutes(15), Duration.ofMinutes(1),
+                        50, maxRequestsPerRun, Duration.ofDays(7)),
+                drugRecordRepository, fdaApiService, new FdaDrugRecordExtractor(objectMapper),
+                drugRecordCache, new ExecutorFactory(new StandardEnvironment()),
+                new SimpleMeterRegistry());
+    }
+
+    private RefreshStatusDto awaitFinished() {
+        await().until(() -> refreshService.getStatus().state() != RefreshState.RUNNING);
+
+        return refreshService.getStatus();
+    }
+}
@@ -5,29 +5,57 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.medrecordsapi.cache.DrugRecordCache;
+import com.example.medrecordsapi.config.DrugRecordCacheProperties;
+import com.example.medrecordsapi.config.FdaBatchSaveProperties;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordCursorPageDto;
 import com.example.medrecordsapi.dto.drugrecord.DrugRecordResponseDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSaveResultDto;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSaveResultDto.SaveStatus;
+import com.example.medrecordsapi.dto.drugrecord.DrugRecordSliceDto;
+import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
 import com.example.medrecordsapi.exception.custom.EntityNotFoundException;
+import com.example.medrecordsapi.exception.custom.InvalidCursorException;
+import com.example.medrecordsapi.exception.custom.InvalidFieldsException;
 import com.example.medrecordsapi.mapper.DrugRecordMapper;
+import com.example.medrecordsapi.mapper.FdaDrugRecordExtractor;
 import com.example.medrecordsapi.model.DrugRecord;
 import com.example.medrecordsapi.repository.DrugRecordRepository;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.search.DrugSearchIndex;
 import com.example.medrecordsapi.service.impl.DrugRecordServiceImpl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
 
 @ExtendWith(MockitoExtension.class)
 public class DrugRecordServiceTest {
@@ -44,6 +72,20 @@ public class DrugRecordServiceTest {
     @Mock
     private FdaApiService fdaApiService;
 
+    @Mock
+    private DrugSearchIndex drugSearchIndex;
+
+    @Spy
+    private FdaDrugRecordExtractor drugRecordExtractor =
+            new FdaDrugRecordExtractor(new ObjectMapper());
+
+    @Spy
+    private FdaBatchSaveProperties batchSaveProperties = new FdaBatchSaveProperties(2);
+
+    @Spy
+    private DrugRecordCache drugRecordCache = new DrugRecordCache(new DrugRecordCacheProperties(
+            true, 100, Duration.ofMinutes(10), Duration.ofSeconds(30)), new SimpleMeterRegistry());
+
     @InjectMocks
     private DrugRecordServiceImpl drugRecordService;
 
@@ -57,7 +99,8 @@ public class DrugRecordServiceTest {
         String mockJsonResponse = "{\"results\": [{\"application_number\": "
                 + "\"12345\", \"brand_name\": \"Avastin\"}]}";
         JsonNode mockJsonNode = new ObjectMapper().readTree(mockJsonResponse);
-        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt()))
+        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                any(FdaRequestPriority.class)))
                 .thenReturn(mockJsonResponse);
         when(objectMapper.readTree(mockJsonResponse))
                 .thenReturn(mockJsonNode);
@@ -66,7 +109,8 @@ public class DrugRecordServiceTest {
                 drugRecordService.searchDrugRecords(manufacturerName, brandName, page, size);
 
         verify(fdaApiService, times(1))
-                .fetchDrugData(anyString(), anyString(), anyInt(), anyInt());
+                .fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                        any(FdaRequestPriority.class));
         assertThat(actualJsonNode).isNotNull();
         assertThat(actualJsonNode.get("results").size()).isGreaterThan(0);
         assertThat(actualJsonNode.get("results").get(0).get("application_number").asText())
@@ -82,7 +126,8 @@ public class DrugRecordServiceTest {
         int size = 10;
         String mockJsonResponse = "{\"results\": []}";
         JsonNode mockJsonNode = new ObjectMapper().readTree(mockJsonResponse);
-        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt()))
+        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                any(FdaRequestPriority.class)))
                 .thenReturn(mockJsonResponse);
         when(objectMapper.readTree(mockJsonResponse))
                 .thenReturn(mockJsonNode);
@@ -91,11 +136,25 @@ public class DrugRecordServiceTest {
                 drugRecordService.searchDrugRecords(manufacturerName, brandName, page, size);
 
         verify(fdaApiService, times(1))
-                .fetchDrugData(anyString(), anyString(), anyInt(), anyInt());
+                .fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                        any(FdaRequestPriority.class));
         assertThat(actualJsonNode).isNotNull();
         assertThat(actualJsonNode.get("results").size()).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("Local index hit is served without calling FDA")
+    void searchDrugRecords_LocalIndexHit_DoesNotCallFda() throws Exception {
+        JsonNode localResult = new ObjectMapper().readTree("{\"results\": [{}]}");
+        when(drugSearchIndex.search("Greenfield", null, 1, 10))
+                .thenReturn(Optional.of(localResult));
+
+        JsonNode actualJsonNode = drugRecordService.searchDrugRecords("Greenfield", null, 1, 10);
+
+        assertThat(actualJsonNode).isSameAs(localResult);
+        verifyNoInteractions(fdaApiService);
+    }
+
     @Test
     @DisplayName("Valid application number saves and returns record")
     void saveDrugRecord_ValidApplicationNumber_SavesAndReturnsDrugRecord() throws Exception {
@@ -113,13 +172,11 @@ public class DrugRecordServiceTest {
                     ]
                 }
                 """;
-        JsonNode mockJsonNode = new ObjectMapper().readTree(mockJsonResponse);
-        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt()))
+        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                any(FdaRequestPriority.class)))
                 .thenReturn(mockJsonResponse);
-        when(objectMapper.readTree(mockJsonResponse)).thenReturn(mockJsonNode);
         DrugRecord mockDrugRecord = new DrugRecord(applicationNumber, "Test Manufacturer",
                 "Test Substance", List.of("12345-6789", "98765-4321"));
-        when(drugRecordRepository.save(any(DrugRecord.class))).thenReturn(mockDrugRecord);
         DrugRecordResponseDto mockResponseDto = new DrugRecordResponseDto(
                 applicationNumber, "Test Manufacturer",
                 "Test Substance", List.of("12345-6789", "98765-4321"));
@@ -134,8 +191,9 @@ public class DrugRecordServiceTest {
         assertThat(result.productNumbers()).containsExactly("12345-6789", "98765-4321");
 
         verify(fdaApiService, times(1))
-                .fetchDrugData(anyString(), anyString(), anyInt(), anyInt());
-        verify(drugRecordRepository, times(1)).save(any(DrugRecord.class));
+                .fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                        any(FdaRequestPriority.class));
+        verify(drugRecordRepository, times(1)).upsertAll(List.of(mockDrugRecord));
         verify(drugRecordMapper, times(1)).toDto(mockDrugRecord);
     }
 
@@ -175,6 +233,36 @@ public class DrugRecordServiceTest {
         verify(drugRecordRepository, times(1)).findByApplicationNumber(applicationNumber);
     }
 
+    @Test
+    @DisplayName("Not found lookup is cached until the record is saved")
+    void findDrugRecordByApplicationNumber_SavedAfterMiss_InvalidatesNegativeEntry()
+            throws Exception {
+        String applicationNumber = "67890";
+        DrugRecord drugRecord = new DrugRecord(applicationNumber, "Manufacturer",
+                "SUBSTANCE", List.of("0001-0001"));
+        DrugRecordResponseDto expected = new DrugRecordResponseDto(applicationNumber,
+                "Manufacturer", "SUBSTANCE", List.of("0001-0001"));
+        when(drugRecordRepository.findByApplicationNumber(applicationNumber))
+                .thenReturn(Optional.empty(), Optional.of(drugRecord));
+        when(fdaApiService.fetchDrugData(anyString(), anyString(), anyInt(), anyInt(),
+                any(FdaRequestPriority.class)))
+                .thenReturn(batchResponse(applicationNumber));
+        when(drugRecordMapper.toDto(drugRecord)).thenReturn(expected);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(
+                    () -> drugRecordService.findDrugRecordByApplicationNumber(applicationNumber))
+                    .isInstanceOf(EntityNotFoundException.class);
+        }
+        drugRecordService.saveDrugRecord(applicationNumber);
+        DrugRecordResponseDto actual =
+                drugRecordService.findDrugRecordByApplicationNumber(applicationNumber);
+        drugRecordService.findDrugRecordByApplicationNumber(applicationNumber);
+
+        assertThat(actual).isEqualTo(expected);
+        verify(drugRecordRepository, times(2)).findByApplicationNumber(applicationNumber);
+    }
+
     @Test
     @DisplayName("Records exist, return all records")
     void findAll_RecordsExist_ReturnsAllDrugRecords() {
@@ -193,7 +281,7 @@ public class DrugRecordServiceTest {
         when(drugRecordMapper.toDto(validDrugRecord1)).thenReturn(expectedDto1);
         when(drugRecordMapper.toDto(validDrugRecord2)).thenReturn(expectedDto2);
 
-        List<DrugRecordResponseDto> actual = drugRecordService.getAllDrugRecords(pageable);
+        List<DrugRecordResponseDto> actual = drugRecordService.getAllDrugRecords(pageable, null);
 
         verify(drugRecordRepository, times(1))
                 .findAll(pageable);
@@ -208,9 +296,175 @@ public class DrugRecordServiceTest {
         Page<DrugRecord> emptyPage = Page.empty();
         when(drugRecordRepository.findAll(pageable)).thenReturn(emptyPage);
 
-        List<DrugRecordResponseDto> actual = drugRecordService.getAllDrugRecords(pageable);
+        List<DrugRecordResponseDto> actual = drugRecordService.getAllDrugRecords(pageable, null);
 
         verify(drugRecordRepository, times(1)).findAll(pageable);
         assertThat(actual).isEmpty();
     }
+
+    @Test
+    @DisplayName("Requested fields are pushed down to the repository")
+    void findAll_FieldsRequested_LoadsOnlyRequestedFields() {
+        DrugRecord projected = new DrugRecord("44578", "Redwood Health Co.", null, null);
+        DrugRecordResponseDto expectedDto =
+                new DrugRecordResponseDto("44578", "Redwood Health Co.", null, null);
+        Pageable pageable = Pageable.unpaged();
+        when(drugRecordRepository.findAllProjected(pageable,
+                Set.of("applicationNumber", "manufacturerName"))).thenReturn(List.of(projected));
+        when(drugRecordMapper.toDto(projected)).thenReturn(expectedDto);
+
+        List<DrugRecordResponseDto> actual = drugRecordService.getAllDrugRecords(pageable,
+                List.of("applicationNumber", "manufacturerName"));
+
+        assertThat(actual).containsExactly(expectedDto);
+        verify(drugRecordRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Unknown field throws exception")
+    void findAll_UnknownField_ThrowsException() {
+        assertThatThrownBy(() -> drugRecordService.getAllDrugRecords(Pageable.unpaged(),
+                List.of("manufacturerName", "password")))
+                .isInstanceOf(InvalidFieldsException.class)
+                .hasMessageContaining("password");
+        verifyNoInteractions(drugRecordRepository);
+    }
+
+    @Test
+    @DisplayName("Manufacturer prefix query is ordered by the manufacturer index")
+    void findByManufacturerPrefix_RecordsExist_ReturnsSlice() {
+        DrugRecord drugRecord = new DrugRecord("44578", "Pfizer Inc", "Atorvastatin",
+                List.of("PN44578"));
+        DrugRecordResponseDto expectedDto = new DrugRecordResponseDto("44578", "Pfizer Inc",
+                "Atorvastatin", List.of("PN44578"));
+        PageRequest pageRequest =
+                PageRequest.of(1, 1, Sort.by("manufacturerName", "applicationNumber"));
+        when(drugRecordRepository.findByManufacturerNameStartingWith("Pfi", pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(drugRecord), pageRequest, true));
+        when(drugRecordMapper.toDto(drugRecord)).thenReturn(expectedDto);
+
+        DrugRecordSliceDto actual =
+                drugRecordService.findDrugRecordsByManufacturerPrefix("Pfi", 1, 1);
+
+        assertThat(actual).isEqualTo(new DrugRecordSliceDto(List.of(expectedDto), 1, 1, true));
+    }
+
+    @Test
+    @DisplayName("Product number query returns the owning record")
+    void findByProductNumber_RecordExists_ReturnsLastSlice() {
+        DrugRecord drugRecord = new DrugRecord("44578", "Pfizer Inc", "Atorvastatin",
+                List.of("PN44577", "PN44578"));
+        PageRequest pageRequest = PageRequest.of(0, 20, Sort.by("applicationNumber"));
+        when(drugRecordRepository.findByProductNumbers("PN44578", pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(drugRecord), pageRequest, false));
+
+        DrugRecordSliceDto actual =
+                drugRecordService.findDrugRecordsByProductNumber("PN44578", 0, 20);
+
+        assertThat(actual.drugRecords()).hasSize(1);
+        assertThat(actual.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Cursor page returns a next cursor when more records exist")
+    void getDrugRecordsAfter_MoreRecords_ReturnsNextCursor() {
+        List<DrugRecord> drugRecords = List.of(
+                new DrugRecord("NDA1", "Manufacturer", "SUBSTANCE", List.of()),
+                new DrugRecord("NDA2", "Manufacturer", "SUBSTANCE", List.of()),
+                new DrugRecord("NDA3", "Manufacturer", "SUBSTANCE", List.of()));
+        when(drugRecordRepository.findAllByOrderByApplicationNumberAsc(Limit.of(3)))
+                .thenReturn(drugRecords);
+        when(drugRecordRepository.findByApplicationNumberGreaterThanOrderByApplicationNumberAsc(
+                "NDA2", Limit.of(3))).thenReturn(drugRecords.subList(2, 3));
+
+        DrugRecordCursorPageDto<DrugRecordResponseDto> firstPage =
+                drugRecordService.getDrugRecordsAfter(null, 2, null);
+        DrugRecordCursorPageDto<DrugRecordResponseDto> lastPage =
+                drugRecordService.getDrugRecordsAfter(firstPage.nextCursor(), 2, null);
+
+        assertThat(firstPage.drugRecords()).hasSize(2);
+        assertThat(firstPage.nextCursor()).isNotNull();
+        assertThat(lastPage.drugRecords()).hasSize(1);
+        assertThat(lastPage.nextCursor()).isNull();
+        verify(drugRecordRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Malformed cursor throws exception")
+    void getDrugRecordsAfter_MalformedCursor_ThrowsException() {
+        assertThatThrownBy(() -> drugRecordService.getDrugRecordsAfter("not base64!", 2, null))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Batch save reports saved and not found numbers")
+    void saveDrugRecords_MixedResults_ReturnsStatusPerNumber() {
+        when(fdaApiService.fetchFreshDrugData("", "openfda.application_number:NDA1"
+                + "+OR+openfda.application_number:NDA2", 1, 2, FdaRequestPriority.BATCH))
+                .thenReturn(batchResponse("NDA1"));
+        when(fdaApiService.fetchFreshDrugData("", "openfda.application_number:NDA3", 1, 1,
+                FdaRequestPriority.BATCH))
+                .thenThrow(new DrugRecordNotFoundException("No drug records found"));
+
+        List<DrugRecordSaveResultDto> actual =
+                drugRecordService.saveDrugRecords(List.of("NDA1", "NDA2", "NDA3", "NDA1"));
+
+        assertThat(actual).extracting(DrugRecordSaveResultDto::status).containsExactly(
+                SaveStatus.SAVED, SaveStatus.NOT_FOUND, SaveStatus.NOT_FOUND);
+        verify(drugRecordRepository).upsertAll(List.of(
+                new DrugRecord("NDA1", "Manufacturer", "SUBSTANCE", List.of("0001-0001"))));
+    }
+
+    @Test
+    @DisplayName("Batch save matches results to requested numbers ignoring case")
+    void saveDrugRecords_LowerCaseNumbers_ReturnsSaved() {
+        when(fdaApiService.fetchFreshDrugData("", "openfda.application_number:nda1"
+                + "+OR+openfda.application_number:NDA1", 1, 2, FdaRequestPriority.BATCH))
+                .thenReturn(batchResponse("NDA1"));
+
+        List<DrugRecordSaveResultDto> actual =
+                drugRecordService.saveDrugRecords(List.of("nda1", "NDA1"));
+
+        assertThat(actual).extracting(DrugRecordSaveResultDto::applicationNumber)
+                .containsExactly("nda1", "NDA1");
+        assertThat(actual).extracting(DrugRecordSaveResultDto::status)
+                .containsExactly(SaveStatus.SAVED, SaveStatus.SAVED);
+        verify(drugRecordRepository).upsertAll(List.of(
+                new DrugRecord("NDA1", "Manufacturer", "SUBSTANCE", List.of("0001-0001"))));
+    }
+
+    @Test
+    @DisplayName("Batch save marks failed chunks and failed bulk writes")
+    void saveDrugRecords_Failures_ReturnsFailedStatus() {
+        when(fdaApiService.fetchFreshDrugData("", "openfda.application_number:NDA1"
+                + "+OR+openfda.application_number:NDA2", 1, 2, FdaRequestPriority.BATCH))
+                .thenReturn(batchResponse("NDA1", "NDA2"));
+        when(fdaApiService.fetchFreshDrugData("", "openfda.application_number:NDA3", 1, 1,
+                FdaRequestPriority.BATCH))
+                .thenThrow(new IllegalStateException("FDA API unavailable"));
+        BulkOperationException bulkException = mock(BulkOperationException.class);
+        when(bulkException.getErrors()).thenReturn(
+                List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        doThrow(bulkException).when(drugRecordRepository).upsertAll(any());
+
+        List<DrugRecordSaveResultDto> actual =
+                drugRecordService.saveDrugRecords(List.of("NDA1", "NDA2", "NDA3"));
+
+        assertThat(actual).extracting(DrugRecordSaveResultDto::status).containsExactly(
+                SaveStatus.SAVED, SaveStatus.FAILED, SaveStatus.FAILED);
+        assertThat(actual.get(2).error()).isEqualTo("FDA API unavailable");
+    }
+
+    private String batchResponse(String... applicationNumbers) {
+        StringBuilder response = new StringBuilder("{\"results\": [");
+        for (int i = 0; i < applicationNumbers.length; i++) {
+            response.append(i > 0 ? "," : "")
+                    .append("{\"application_number\": \"").append(applicationNumbers[i])
+                    .append("\", \"openfda\": {\"manufacturer_name\": [\"Manufacturer\"], ")
+                    .append("\"substance_name\": [\"SUBSTANCE\"], ")
+                    .append("\"product_ndc\": [\"0001-0001\"]}}");
+        }
+
+        return response.append("]}").toString();
+    }
 }
@@ -2,18 +2,46 @@ package com.example.medrecordsapi.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.medrecordsapi.cache.FdaQueryKey;
+import com.example.medrecordsapi.cache.FdaResponseCache;
+import com.example.medrecordsapi.config.FdaBulkheadProperties;
+import com.example.medrecordsapi.config.FdaCircuitBreakerProperties;
 import com.example.medrecordsapi.exception.custom.DrugRecordNotFoundException;
+import com.example.medrecordsapi.exception.custom.FdaApiThrottledException;
+import com.example.medrecordsapi.exception.custom.FdaApiTimeoutException;
+import com.example.medrecordsapi.resilience.FdaBulkhead;
+import com.example.medrecordsapi.resilience.FdaCircuitBreaker;
+import com.example.medrecordsapi.resilience.FdaRequestCoalescer;
+import com.example.medrecordsapi.resilience.FdaRequestHedger;
+import com.example.medrecordsapi.resilience.FdaRequestPriority;
+import com.example.medrecordsapi.resilience.FdaRequestScheduler;
 import com.example.medrecordsapi.service.impl.FdaApiServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
@@ -23,9 +51,45 @@ public class FdaApiServiceImplTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private FdaResponseCache responseCache;
+
+    @Mock
+    private FdaRequestCoalescer requestCoalescer;
+
+    @Mock
+    private FdaRequestScheduler requestScheduler;
+
+    @Mock
+    private FdaBulkhead bulkhead;
+
+    @Mock
+    private FdaCircuitBreaker circuitBreaker;
+
+    @Mock
+    private FdaRequestHedger requestHedger;
+
     @InjectMocks
     private FdaApiServiceImpl fdaApiServiceImpl;
 
+    @BeforeEach
+    void setup() {
+        lenient().when(responseCache.get(any(FdaQueryKey.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(1).get());
+        lenient().when(requestCoalescer.execute(any(FdaQueryKey.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(1).get());
+        lenient().when(requestScheduler.execute(any(FdaRequestPriority.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(bulkhead.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(circuitBreaker.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(bulkhead.acquire()).thenReturn(mock(FdaBulkhead.Permit.class));
+        lenient().when(circuitBreaker.begin()).thenReturn(mock(FdaCircuitBreaker.Call.class));
+        lenient().when(requestHedger.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
     @Test
     @DisplayName("Valid response returned successfully")
     void fetchDrugData_ValidResponse_ReturnsJsonString() {
@@ -38,7 +102,8 @@ public class FdaApiServiceImplTest {
         when(restTemplate.getForObject(anyString(), eq(String.class)))
                 .thenReturn(mockJsonResponse);
 
-        String result = fdaApiServiceImpl.fetchDrugData(manufacturerName, brandName, page, size);
+        String result = fdaApiServiceImpl.fetchDrugData(manufacturerName, brandName, page, size,
+                FdaRequestPriority.INTERACTIVE);
 
         assertThat(result).isNotNull();
         assertThat(result).isEqualTo(mockJsonResponse);
@@ -55,11 +120,47 @@ public class FdaApiServiceImplTest {
                 new RestClientResponseException("Not Found", 404, "Not Found", null, null, null));
 
         assertThatThrownBy(
-                () -> fdaApiServiceImpl.fetchDrugData(manufacturerName, brandName, page, size))
+                () -> fdaApiServiceImpl.fetchDrugData(manufacturerName, brandName, page, size,
+                        FdaRequestPriority.INTERACTIVE))
                 .isInstanceOf(DrugRecordNotFoundException.class)
                 .hasMessageContaining("No drug records found");
     }
 
+    @Test
+    @DisplayName("Upstream I/O error is reported as a timeout")
+    void fetchDrugData_NoResponse_ThrowsTimeoutException() {
+        when(restTemplate.getForObject(anyString(), eq(String.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        assertThatThrownBy(() -> fdaApiServiceImpl.fetchDrugData("", "Aspirin", 1, 10,
+                FdaRequestPriority.INTERACTIVE))
+                .isInstanceOf(FdaApiTimeoutException.class);
+    }
+
+    @Test
+    @DisplayName("Fresh fetch bypasses the response cache and coalescing")
+    void fetchFreshDrugData_ValidResponse_SkipsCache() {
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("{}");
+
+        String result = fdaApiServiceImpl.fetchFreshDrugData("", "Aspirin", 1, 10,
+                FdaRequestPriority.BATCH);
+
+        assertThat(result).isEqualTo("{}");
+        verifyNoInteractions(responseCache, requestCoalescer, requestHedger);
+    }
+
+    @Test
+    @DisplayName("Caller throttled by the scheduler never takes a bulkhead permit")
+    void fetchDrugData_ThrottledBeforeAttempt_SkipsBulkhead() {
+        when(requestScheduler.execute(eq(FdaRequestPriority.BATCH), any()))
+                .thenThrow(new FdaApiThrottledException("Throttled", Duration.ofSeconds(1)));
+
+        assertThatThrownBy(() -> fdaApiServiceImpl.fetchDrugData("", "Aspirin", 1, 10,
+                FdaRequestPriority.BATCH))
+                .isInstanceOf(FdaApiThrottledException.class);
+        verifyNoInteractions(bulkhead, restTemplate);
+    }
+
     @Test
     @DisplayName("Null or empty API key does not break the API call")
     void fetchDrugData_NoApiKey_DoesNotBreakRequest() {
@@ -73,9 +174,63 @@ public class FdaApiServiceImplTest {
                 .thenReturn(mockJsonResponse);
         System.setProperty("FDA_API_KEY", "");
 
-        String result = fdaApiServiceImpl.fetchDrugData(manufacturerName, brandName, page, size);
+        String result = fdaApiServiceImpl.fetchDrugData(manufacturerName, brandName, page, size,
+                FdaRequestPriority.INTERACTIVE);
 
         assertThat(result).isNotNull();
         assertThat(result).isEqualTo(mockJsonResponse);
     }
+
+    @Test
+    @DisplayName("Streaming error response throws exception and skips the cache")
+    void streamDrugData_InvalidResponse_ThrowsException() {
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(),
+                any(ResponseExtractor.class)))
+                .thenThrow(new RestClientResponseException("Not Found", 404, "Not Found",
+                        null, null, null));
+
+        assertThatThrownBy(() -> fdaApiServiceImpl.streamDrugData("", "Nonexistent", 1, 10,
+                body -> { }))
+                .isInstanceOf(DrugRecordNotFoundException.class)
+                .hasMessageContaining("No drug records found");
+        verifyNoInteractions(responseCache, requestCoalescer);
+    }
+
+    @Test
+    @DisplayName("Client disconnect while streaming is not recorded against openFDA")
+    void streamDrugData_ClientAborts_RecordsUpstreamSuccess() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FdaBulkhead realBulkhead = new FdaBulkhead(
+                new FdaBulkheadProperties(true, 1, Duration.ofMillis(10)), meterRegistry);
+        FdaCircuitBreaker realCircuitBreaker = new FdaCircuitBreaker(
+                new FdaCircuitBreakerProperties(true, 10, 1, 0.5, Duration.ofSeconds(3), 0.5,
+                        Duration.ofSeconds(30), 1), meterRegistry);
+        FdaApiServiceImpl streamingService = new FdaApiServiceImpl(restTemplate, responseCache,
+                requestCoalescer, requestScheduler, realBulkhead, realCircuitBreaker,
+                requestHedger);
+        ClientHttpResponse response = mock(ClientHttpResponse.class);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(),
+                any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    try {
+                        return invocation.<ResponseExtractor<?>>getArgument(3)
+                                .extractData(response);
+                    } catch (IOException e) {
+                        throw new ResourceAccessException(e.getMessage(), e);
+                    }
+                });
+        AtomicReference<Double> inFlightWhileCopying = new AtomicReference<>();
+
+        assertThatThrownBy(() -> streamingService.streamDrugData("", "Aspirin", 1, 10, body -> {
+            inFlightWhileCopying.set(
+                    meterRegistry.get("fda.bulkhead.in-flight").gauge().value());
+            throw new IOException("Broken pipe");
+        })).isInstanceOf(ResourceAccessException.class);
+
+        assertThat(inFlightWhileCopying.get()).isZero();
+        assertThat(realCircuitBreaker.getState()).isEqualTo(FdaCircuitBreaker.State.CLOSED);
+        assertThat(meterRegistry.get("fda.circuit-breaker.calls")
+                .tag("outcome", "success").counter().count()).isEqualTo(1);
+    }
 }
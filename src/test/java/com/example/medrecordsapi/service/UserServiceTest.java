@@ -14,6 +14,7 @@ import com.example.medrecordsapi.mapper.UserMapper;
 import com.example.medrecordsapi.model.Role;
 import com.example.medrecordsapi.model.User;
 import com.example.medrecordsapi.repository.UserRepository;
+import com.example.medrecordsapi.security.JwtPrincipalResolver;
 import com.example.medrecordsapi.service.impl.UserServiceImpl;
 import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
@@ -36,6 +37,9 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private JwtPrincipalResolver principalResolver;
+
     @InjectMocks
     private UserServiceImpl userService;
 